@@ -15,6 +15,7 @@ android {
 }
 
 dependencies {
+    api(project(":core"))
     implementation("androidx.annotation:annotation:1.8.0")
     androidTestImplementation("com.google.truth:truth:1.4.2")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
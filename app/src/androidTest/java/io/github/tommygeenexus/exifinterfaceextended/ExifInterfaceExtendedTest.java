@@ -71,6 +71,7 @@ import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
@@ -370,6 +371,120 @@ public class ExifInterfaceExtendedTest {
         readFromFilesWithExif(imageFile, ExpectedAttributes.DNG_WITH_EXIF_WITH_XMP);
     }
 
+    @Test
+    @SmallTest
+    public void testGetAttributeComponents() throws Throwable {
+        File imageFile = copyFromResourceToFile(
+                R.raw.dng_with_exif_with_xmp,
+                "dng_with_exif_with_xmp.dng"
+        );
+        ExifInterfaceExtended exifInterface = new ExifInterfaceExtended(imageFile);
+
+        // GPSLatitude is 53/1,50/1,423/100
+        expect.that(exifInterface.getAttributeDouble(ExifInterfaceExtended.TAG_GPS_LATITUDE, 0, -1))
+                .isEqualTo(53.0);
+        expect.that(exifInterface.getAttributeDouble(ExifInterfaceExtended.TAG_GPS_LATITUDE, 1, -1))
+                .isEqualTo(50.0);
+        expect.that(exifInterface.getAttributeDouble(ExifInterfaceExtended.TAG_GPS_LATITUDE, 2, -1))
+                .isEqualTo(4.23);
+        expect.that(exifInterface.getAttributeDouble(ExifInterfaceExtended.TAG_GPS_LATITUDE, 3, -1))
+                .isEqualTo(-1);
+        expect.that(exifInterface.getAttributeInt(ExifInterfaceExtended.TAG_GPS_LATITUDE, 0, -1))
+                .isEqualTo(-1);
+
+        // BitsPerSample is 8,8,8
+        for (int i = 0; i < 3; i++) {
+            expect.that(
+                    exifInterface.getAttributeInt(ExifInterfaceExtended.TAG_BITS_PER_SAMPLE, i, -1))
+                    .isEqualTo(8);
+        }
+        expect.that(exifInterface.getAttributeInt(ExifInterfaceExtended.TAG_BITS_PER_SAMPLE, 3, -1))
+                .isEqualTo(-1);
+        expect.that(exifInterface.getAttributeInt(ExifInterfaceExtended.TAG_IMAGE_WIDTH, 0, -1))
+                .isEqualTo(exifInterface.getAttributeInt(ExifInterfaceExtended.TAG_IMAGE_WIDTH, -1));
+        expect.that(exifInterface.getAttributeInt(ExifInterfaceExtended.TAG_MAKE, 0, -1))
+                .isEqualTo(-1);
+    }
+
+    @Test
+    @SmallTest
+    public void testGetAttributeByTagNumber() throws Throwable {
+        File imageFile = copyFromResourceToFile(
+                R.raw.dng_with_exif_with_xmp,
+                "dng_with_exif_with_xmp.dng"
+        );
+        ExifInterfaceExtended exifInterface = new ExifInterfaceExtended(imageFile);
+
+        // Make (271), ExposureTime (33434), ImageWidth (256) and GPSLatitude (2)
+        expect.that(exifInterface.getAttribute(271))
+                .isEqualTo(exifInterface.getAttribute(ExifInterfaceExtended.TAG_MAKE));
+        expect.that(exifInterface.getAttribute(33434))
+                .isEqualTo(exifInterface.getAttribute(ExifInterfaceExtended.TAG_EXPOSURE_TIME));
+        expect.that(exifInterface.getAttributeInt(256, -1))
+                .isEqualTo(exifInterface.getAttributeInt(ExifInterfaceExtended.TAG_IMAGE_WIDTH, -1));
+        expect.that(exifInterface.getAttributeDouble(33434, -1))
+                .isEqualTo(exifInterface.getAttributeDouble(
+                        ExifInterfaceExtended.TAG_EXPOSURE_TIME, -1));
+        expect.that(exifInterface.getAttribute(2))
+                .isEqualTo(exifInterface.getAttribute(ExifInterfaceExtended.TAG_GPS_LATITUDE));
+        expect.that(exifInterface.getAttribute(0xffff)).isNull();
+        expect.that(exifInterface.getAttributeInt(0xffff, -1)).isEqualTo(-1);
+    }
+
+    @Test
+    @SmallTest
+    public void testReadRequestedTags() throws Throwable {
+        File imageFile = copyFromResourceToFile(
+                R.raw.jpeg_with_exif_byte_order_ii,
+                "jpeg_with_exif_byte_order_ii.jpg"
+        );
+        ExifInterfaceExtended exifInterface = new ExifInterfaceExtended(imageFile);
+        ExifInterfaceExtended requestedExifInterface = new ExifInterfaceExtended(imageFile,
+                new HashSet<>(Arrays.asList(
+                        ExifInterfaceExtended.TAG_ORIENTATION,
+                        ExifInterfaceExtended.TAG_DATETIME_ORIGINAL,
+                        "GPS*")));
+
+        expect.that(requestedExifInterface.getAttribute(ExifInterfaceExtended.TAG_ORIENTATION))
+                .isEqualTo(exifInterface.getAttribute(ExifInterfaceExtended.TAG_ORIENTATION));
+        expect.that(requestedExifInterface.getAttribute(ExifInterfaceExtended.TAG_DATETIME_ORIGINAL))
+                .isEqualTo(exifInterface.getAttribute(ExifInterfaceExtended.TAG_DATETIME_ORIGINAL));
+        expect.that(requestedExifInterface.getAttribute(ExifInterfaceExtended.TAG_GPS_LATITUDE))
+                .isEqualTo(exifInterface.getAttribute(ExifInterfaceExtended.TAG_GPS_LATITUDE));
+        expect.that(requestedExifInterface.getLatLong()).isEqualTo(exifInterface.getLatLong());
+        expect.that(requestedExifInterface.getAttribute(ExifInterfaceExtended.TAG_EXPOSURE_TIME))
+                .isNull();
+        assertThrows(IOException.class, requestedExifInterface::saveAttributes);
+    }
+
+    @Test
+    @SmallTest
+    public void testVisitAttributes() throws Throwable {
+        File imageFile = copyFromResourceToFile(
+                R.raw.jpeg_with_exif_byte_order_ii,
+                "jpeg_with_exif_byte_order_ii.jpg"
+        );
+        ExifInterfaceExtended exifInterface = new ExifInterfaceExtended(imageFile);
+        AtomicReference<long[]> orientationRange = new AtomicReference<>();
+        AtomicReference<Integer> orientation = new AtomicReference<>();
+        ExifInterfaceExtended.visitAttributes(imageFile,
+                (ifdType, tagNumber, format, numberOfComponents, valueOffset, valueReader) -> {
+                    if (ifdType != ExifVisitor.IFD_TYPE_PRIMARY || tagNumber != 0x0112) {
+                        return;
+                    }
+                    byte[] value = new byte[valueReader.getLength()];
+                    valueReader.read(value, 0);
+                    orientation.set(ByteBuffer.wrap(value).order(valueReader.getByteOrder())
+                            .getShort() & 0xffff);
+                    orientationRange.set(new long[] {valueOffset, value.length});
+                });
+
+        expect.that(orientation.get()).isEqualTo(
+                exifInterface.getAttributeInt(ExifInterfaceExtended.TAG_ORIENTATION, -1));
+        expect.that(orientationRange.get()).isEqualTo(
+                exifInterface.getAttributeRange(ExifInterfaceExtended.TAG_ORIENTATION));
+    }
+
     @Test
     @LargeTest
     public void testPngWithExif() throws Throwable {
@@ -513,52 +628,18 @@ public class ExifInterfaceExtendedTest {
         testWritingExif(imageFile, /* expectedAttributes= */ null);
     }
 
-    /**
-     * Support for retrieving EXIF from HEIC was added in SDK 28.
-     */
     @Test
     @LargeTest
     public void testHeicFile() throws Throwable {
         File imageFile = copyFromResourceToFile(R.raw.heic_with_exif, "heic_with_exif.heic");
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
-            // Reading XMP data from HEIC was added in SDK 31.
-            readFromFilesWithExif(
-                    imageFile,
-                    Build.VERSION.SDK_INT >= Build.VERSION_CODES.S
-                            ? ExpectedAttributes.HEIC_WITH_EXIF_API_31_AND_ABOVE
-                            : ExpectedAttributes.HEIC_WITH_EXIF_BELOW_API_31);
-        } else {
-            // Make sure that an exception is not thrown and that image length/width tag values
-            // return default values, not the actual values.
-            ExifInterfaceExtended exif = new ExifInterfaceExtended(imageFile.getAbsolutePath());
-            String defaultTagValue = "0";
-            assertThat(exif.getAttribute(ExifInterfaceExtended.TAG_IMAGE_LENGTH))
-                    .isEqualTo(defaultTagValue);
-            assertThat(exif.getAttribute(ExifInterfaceExtended.TAG_IMAGE_WIDTH))
-                    .isEqualTo(defaultTagValue);
-        }
+        readFromFilesWithExif(imageFile, ExpectedAttributes.HEIC_WITH_EXIF);
     }
 
-    /**
-     * Support for retrieving EXIF from AVIF was added in SDK 31.
-     */
     @Test
     @LargeTest
     public void testAvifFile() throws Throwable {
         File imageFile = copyFromResourceToFile(R.raw.avif_with_exif, "avif_with_exif.avif");
-        if (Build.VERSION.SDK_INT >= 31) {
-            // Reading EXIF and XMP data from AVIF was added in SDK 31.
-            readFromFilesWithExif(imageFile, ExpectedAttributes.AVIF_WITH_EXIF);
-        } else {
-            // Make sure that an exception is not thrown and that image length/width tag values
-            // return default values, not the actual values.
-            ExifInterfaceExtended exif = new ExifInterfaceExtended(imageFile.getAbsolutePath());
-            String defaultTagValue = "0";
-            assertThat(exif.getAttribute(ExifInterfaceExtended.TAG_IMAGE_LENGTH))
-                    .isEqualTo(defaultTagValue);
-            assertThat(exif.getAttribute(ExifInterfaceExtended.TAG_IMAGE_WIDTH))
-                    .isEqualTo(defaultTagValue);
-        }
+        readFromFilesWithExif(imageFile, ExpectedAttributes.AVIF_WITH_EXIF);
     }
 
     @Test
@@ -2007,6 +2088,10 @@ public class ExifInterfaceExtendedTest {
         exifInterface = new ExifInterfaceExtended(imageFile.getAbsolutePath());
         compareWithExpectedAttributes(exifInterface, expectedAttributes, verboseTag);
 
+        // Creates via memory-mapped file.
+        exifInterface = new ExifInterfaceExtended(imageFile, /* memoryMapped= */ true);
+        compareWithExpectedAttributes(exifInterface, expectedAttributes, verboseTag);
+
         // Creates via InputStream.
         try (InputStream in = new BufferedInputStream(
                 java.nio.file.Files.newInputStream(Paths.get(imageFile.getAbsolutePath())))
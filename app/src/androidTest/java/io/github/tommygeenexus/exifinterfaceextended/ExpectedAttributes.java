@@ -178,23 +178,14 @@ final class ExpectedAttributes {
                     .setHasIccProfile(true)
                     .build();
 
-    /** Expected attributes for {@link R.raw#heic_with_exif} when read on a device below API 31. */
-    public static final ExpectedAttributes HEIC_WITH_EXIF_BELOW_API_31 =
+    /** Expected attributes for {@link R.raw#heic_with_exif}. */
+    public static final ExpectedAttributes HEIC_WITH_EXIF =
             new Builder()
                     .setMake("LGE")
                     .setMakeOffset(3519)
                     .setModel("Nexus 5")
                     .setImageSize(1920, 1080)
                     .setOrientation(ExifInterfaceExtended.ORIENTATION_NORMAL)
-                    .build();
-
-    /**
-     * Expected attributes for {@link R.raw#heic_with_exif} when read on a device running API 31 or
-     * above.
-     */
-    public static final ExpectedAttributes HEIC_WITH_EXIF_API_31_AND_ABOVE =
-            HEIC_WITH_EXIF_BELOW_API_31
-                    .buildUpon()
                     .setXmpResourceId(R.raw.heic_xmp)
                     .setXmpOffsetAndLength(3721, 3020)
                     .build();
@@ -257,7 +248,7 @@ final class ExpectedAttributes {
      * Expected attributes for {@link R.raw#avif_with_exif}.
      */
     public static final ExpectedAttributes AVIF_WITH_EXIF =
-            HEIC_WITH_EXIF_API_31_AND_ABOVE
+            HEIC_WITH_EXIF
                     .buildUpon()
                     .setMakeOffset(451)
                     .setXmpOffsetAndLength(653, 3020)
@@ -0,0 +1,35 @@
+plugins {
+    id("java")
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+// The test images shared with the instrumented tests of the Android library.
+val corpusDir: File = rootProject.file("app/src/androidTest/res/raw")
+val images: List<String> = corpusDir
+    .listFiles { file -> file.extension != "xml" }
+    .orEmpty()
+    .map { it.name }
+    .sorted()
+val writableImages: List<String> = images.filter { it.substringAfterLast('.') in setOf("jpg", "png", "webp") }
+
+jmh {
+    jmhVersion.set("1.37")
+    benchmarkParameters.put("fileName", objects.listProperty<String>().value(images))
+    benchmarkParameters.put("writableFileName", objects.listProperty<String>().value(writableImages))
+    jvmArgsAppend.add("-Dexif.corpus.dir=${corpusDir.absolutePath}")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
+
+dependencies {
+    jmh(project(":core"))
+}
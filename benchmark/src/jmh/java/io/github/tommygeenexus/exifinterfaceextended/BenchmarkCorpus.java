@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Access to the test images the benchmarks run against.
+ * <p>
+ * The directory is passed by the build as the {@code exif.corpus.dir} system property and defaults
+ * to the raw resources of the instrumented tests, relative to the project root.
+ */
+final class BenchmarkCorpus {
+
+    private static final String PROPERTY_CORPUS_DIR = "exif.corpus.dir";
+    private static final String DEFAULT_CORPUS_DIR = "app/src/androidTest/res/raw";
+
+    /**
+     * The names of all public {@code TAG_*} constants of {@link ExifInterfaceExtendedCore}.
+     */
+    static final List<String> TAGS = Collections.unmodifiableList(collectTags());
+
+    private BenchmarkCorpus() {
+        // Prevent instantiation
+    }
+
+    static File getFile(String fileName) throws IOException {
+        final File file = new File(System.getProperty(PROPERTY_CORPUS_DIR, DEFAULT_CORPUS_DIR),
+                fileName);
+        if (!file.isFile()) {
+            throw new IOException("Test image not found: " + file.getAbsolutePath());
+        }
+        return file;
+    }
+
+    static byte[] readBytes(String fileName) throws IOException {
+        return Files.readAllBytes(getFile(fileName).toPath());
+    }
+
+    private static List<String> collectTags() {
+        final List<String> tags = new ArrayList<>();
+        for (Field field : ExifInterfaceExtendedCore.class.getFields()) {
+            final int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) && field.getType() == String.class
+                    && field.getName().startsWith("TAG_")) {
+                try {
+                    tags.add((String) field.get(null));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * An {@link OutputStream} which discards everything written to it.
+     */
+    static final class DiscardingOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading the metadata of the test images.
+ * <p>
+ * The build runs this benchmark against every image in the corpus; the values of
+ * {@link #fileName} below are used when it is started without the build, e.g. from an IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExifReadBenchmark {
+
+    @Param({
+            "jpeg_with_exif_full_app1_segment.jpg",
+            "dng_with_exif_with_xmp.dng",
+            "webp_with_icc_with_exif_with_xmp.webp",
+            "png_with_exif_byte_order_ii.png"
+    })
+    public String fileName;
+
+    private File mFile;
+    private byte[] mBytes;
+    private ExifInterfaceExtendedCore mExifInterface;
+
+    @Setup
+    public void setUp() throws IOException {
+        mFile = BenchmarkCorpus.getFile(fileName);
+        mBytes = BenchmarkCorpus.readBytes(fileName);
+        mExifInterface = new ExifInterfaceExtendedCore(mFile);
+    }
+
+    @Benchmark
+    public ExifInterfaceExtendedCore constructFromFile() throws IOException {
+        return new ExifInterfaceExtendedCore(mFile);
+    }
+
+    @Benchmark
+    public ExifInterfaceExtendedCore constructFromBytes() throws IOException {
+        return new ExifInterfaceExtendedCore(new ByteArrayInputStream(mBytes));
+    }
+
+    @Benchmark
+    public void getAttributes(Blackhole blackhole) {
+        for (String tag : BenchmarkCorpus.TAGS) {
+            blackhole.consume(mExifInterface.getAttribute(tag));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing the metadata of the test images which support saving (JPEG, PNG and WebP).
+ * <p>
+ * The build runs this benchmark against every writable image in the corpus; the values of
+ * {@link #writableFileName} below are used when it is started without the build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExifWriteBenchmark {
+
+    @Param({
+            "jpeg_with_exif_full_app1_segment.jpg",
+            "webp_with_icc_with_exif_with_xmp.webp",
+            "png_with_exif_byte_order_ii.png"
+    })
+    public String writableFileName;
+
+    private byte[] mBytes;
+    private File mTempFile;
+    private ExifInterfaceExtendedCore mExifInterface;
+    private ExifInterfaceExtendedCore mSavingExifInterface;
+    private final OutputStream mSink = new BenchmarkCorpus.DiscardingOutputStream();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mBytes = BenchmarkCorpus.readBytes(writableFileName);
+        mTempFile = File.createTempFile("benchmark", writableFileName);
+        mExifInterface = new ExifInterfaceExtendedCore(new ByteArrayInputStream(mBytes));
+    }
+
+    /**
+     * Restores the original image before each call of {@link #saveAttributes()}, which rewrites
+     * the file in place.
+     */
+    @Setup(Level.Invocation)
+    public void restoreTempFile() throws IOException {
+        Files.write(mTempFile.toPath(), mBytes);
+        mSavingExifInterface = new ExifInterfaceExtendedCore(mTempFile);
+        mSavingExifInterface.setAttribute(ExifInterfaceExtendedCore.TAG_ARTIST, "Benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (!mTempFile.delete()) {
+            mTempFile.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public void saveAttributes() throws IOException {
+        mSavingExifInterface.saveAttributes();
+    }
+
+    @Benchmark
+    public void saveExclusive() throws IOException {
+        mExifInterface.saveExclusive(new ByteArrayInputStream(mBytes), mSink, true);
+    }
+}
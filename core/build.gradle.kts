@@ -0,0 +1,26 @@
+plugins {
+    id("java-library")
+    id("com.vanniktech.maven.publish") version "0.28.0"
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+sourceSets {
+    test {
+        // Share the test images with the instrumented tests of the Android library.
+        resources.srcDir("../app/src/androidTest/res/raw")
+    }
+}
+
+dependencies {
+    implementation("androidx.annotation:annotation:1.8.0")
+    testImplementation("junit:junit:4.13.2")
+    testImplementation("com.google.truth:truth:1.4.2")
+}
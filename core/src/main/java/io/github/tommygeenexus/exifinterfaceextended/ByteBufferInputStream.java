@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream that reads from a {@link ByteBuffer}, e.g. a memory-mapped file.
+ * <p>
+ * Mark/reset and skip only move the position of the buffer, so no data is copied or retained
+ * while seeking. The given buffer is duplicated, its position and limit are left untouched.
+ */
+class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer mBuffer;
+    private int mMarkPosition;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+        mBuffer = buffer.duplicate();
+        mMarkPosition = mBuffer.position();
+    }
+
+    @Override
+    public int read() {
+        if (!mBuffer.hasRemaining()) {
+            return -1;
+        }
+        return mBuffer.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!mBuffer.hasRemaining()) {
+            return -1;
+        }
+        int bytesToRead = Math.min(len, mBuffer.remaining());
+        mBuffer.get(b, off, bytesToRead);
+        return bytesToRead;
+    }
+
+    @Override
+    public long skip(long n) {
+        if (n <= 0) {
+            return 0;
+        }
+        int skipped = (int) Math.min(n, mBuffer.remaining());
+        mBuffer.position(mBuffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return mBuffer.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        // The read limit is irrelevant since no data needs to be retained to reset.
+        mMarkPosition = mBuffer.position();
+    }
+
+    @Override
+    public synchronized void reset() {
+        mBuffer.position(mMarkPosition);
+    }
+
+    /**
+     * Returns the underlying buffer. Its position is the current position of this stream.
+     */
+    ByteBuffer getByteBuffer() {
+        return mBuffer;
+    }
+}
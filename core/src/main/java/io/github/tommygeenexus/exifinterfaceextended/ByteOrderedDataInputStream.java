@@ -17,18 +17,22 @@
 
 package io.github.tommygeenexus.exifinterfaceextended;
 
-import java.io.ByteArrayInputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
 
 /**
  * An input stream to parse EXIF data area, which can be written in either little or big endian
  * order.
+ * <p>
+ * When created from a byte array or a {@link ByteBufferInputStream}, the data is read directly
+ * from a {@link ByteBuffer} whose byte order is set once in {@link #setByteOrder(ByteOrder)}, so
+ * multi-byte values are decoded with a single get instead of one read call per byte.
  */
 class ByteOrderedDataInputStream extends InputStream implements DataInput {
 
@@ -37,7 +41,9 @@ class ByteOrderedDataInputStream extends InputStream implements DataInput {
 
     public static final int LENGTH_UNSET = -1;
 
+    // Exactly one of mDataInputStream and mByteBuffer is non-null.
     private final DataInputStream mDataInputStream;
+    private final ByteBuffer mByteBuffer;
     private ByteOrder mByteOrder;
 
     private int mPosition;
@@ -45,8 +51,15 @@ class ByteOrderedDataInputStream extends InputStream implements DataInput {
     private int mLength;
 
     ByteOrderedDataInputStream(byte[] bytes) {
-        this(new ByteArrayInputStream(bytes), ByteOrder.BIG_ENDIAN);
-        this.mLength = bytes.length;
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads the given range of the byte array. Position 0 of this stream is {@code offset}.
+     */
+    ByteOrderedDataInputStream(byte[] bytes, int offset, int length) {
+        this(ByteBuffer.wrap(bytes, offset, length).slice(), ByteOrder.BIG_ENDIAN);
+        this.mLength = length;
     }
 
     ByteOrderedDataInputStream(InputStream in) {
@@ -54,29 +67,61 @@ class ByteOrderedDataInputStream extends InputStream implements DataInput {
     }
 
     ByteOrderedDataInputStream(InputStream in, ByteOrder byteOrder) {
-        mDataInputStream = new DataInputStream(in);
-        mDataInputStream.mark(0);
+        if (in instanceof ByteBufferInputStream) {
+            mDataInputStream = null;
+            mByteBuffer = ((ByteBufferInputStream) in).getByteBuffer().slice();
+        } else {
+            mDataInputStream = new DataInputStream(in);
+            mDataInputStream.mark(0);
+            mByteBuffer = null;
+        }
         mPosition = 0;
-        mByteOrder = byteOrder;
+        setByteOrder(byteOrder);
         this.mLength = in instanceof ByteOrderedDataInputStream
                 ? ((ByteOrderedDataInputStream) in).length()
                 : LENGTH_UNSET;
     }
 
+    private ByteOrderedDataInputStream(ByteBuffer buffer, ByteOrder byteOrder) {
+        mDataInputStream = null;
+        mByteBuffer = buffer;
+        mPosition = 0;
+        setByteOrder(byteOrder);
+        this.mLength = LENGTH_UNSET;
+    }
+
     @Override
     public int available() throws IOException {
+        if (mByteBuffer != null) {
+            return mByteBuffer.remaining();
+        }
         return mDataInputStream.available();
     }
 
     @Override
     public int read() throws IOException {
         ++mPosition;
+        if (mByteBuffer != null) {
+            return mByteBuffer.hasRemaining() ? mByteBuffer.get() & 0xff : -1;
+        }
         return mDataInputStream.read();
     }
 
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
-        int bytesRead = mDataInputStream.read(b, off, len);
+        int bytesRead;
+        if (mByteBuffer != null) {
+            if (len == 0) {
+                bytesRead = 0;
+            } else if (!mByteBuffer.hasRemaining()) {
+                bytesRead = -1;
+            } else {
+                bytesRead = Math.min(len, mByteBuffer.remaining());
+                mByteBuffer.get(b, off, bytesRead);
+            }
+        } else {
+            bytesRead = mDataInputStream.read(b, off, len);
+        }
         mPosition += bytesRead;
         return bytesRead;
     }
@@ -84,6 +129,10 @@ class ByteOrderedDataInputStream extends InputStream implements DataInput {
     @Override
     public int readUnsignedByte() throws IOException {
         ++mPosition;
+        if (mByteBuffer != null) {
+            requireRemaining(1);
+            return mByteBuffer.get() & 0xff;
+        }
         return mDataInputStream.readUnsignedByte();
     }
 
@@ -95,36 +144,65 @@ class ByteOrderedDataInputStream extends InputStream implements DataInput {
     @Override
     public boolean readBoolean() throws IOException {
         ++mPosition;
+        if (mByteBuffer != null) {
+            requireRemaining(1);
+            return mByteBuffer.get() != 0;
+        }
         return mDataInputStream.readBoolean();
     }
 
     @Override
     public char readChar() throws IOException {
         mPosition += 2;
+        if (mByteBuffer != null) {
+            // DataInput defines chars as big endian regardless of the byte order.
+            requireRemaining(2);
+            int ch1 = mByteBuffer.get() & 0xff;
+            int ch2 = mByteBuffer.get() & 0xff;
+            return (char) ((ch1 << 8) + ch2);
+        }
         return mDataInputStream.readChar();
     }
 
     @Override
     public String readUTF() throws IOException {
         mPosition += 2;
+        if (mByteBuffer != null) {
+            requireRemaining(2);
+            int start = mByteBuffer.position();
+            int utfLength = ((mByteBuffer.get(start) & 0xff) << 8)
+                    + (mByteBuffer.get(start + 1) & 0xff);
+            String value = DataInputStream.readUTF(
+                    new DataInputStream(new ByteBufferInputStream(mByteBuffer)));
+            mByteBuffer.position(start + 2 + utfLength);
+            return value;
+        }
         return mDataInputStream.readUTF();
     }
 
     @Override
     public void readFully(byte[] buffer, int offset, int length) throws IOException {
         mPosition += length;
+        if (mByteBuffer != null) {
+            requireRemaining(length);
+            mByteBuffer.get(buffer, offset, length);
+            return;
+        }
         mDataInputStream.readFully(buffer, offset, length);
     }
 
     @Override
     public void readFully(byte[] buffer) throws IOException {
-        mPosition += buffer.length;
-        mDataInputStream.readFully(buffer);
+        readFully(buffer, 0, buffer.length);
     }
 
     @Override
     public byte readByte() throws IOException {
         ++mPosition;
+        if (mByteBuffer != null) {
+            requireRemaining(1);
+            return mByteBuffer.get();
+        }
         int ch = mDataInputStream.read();
         if (ch < 0) {
             throw new EOFException();
@@ -135,6 +213,10 @@ class ByteOrderedDataInputStream extends InputStream implements DataInput {
     @Override
     public short readShort() throws IOException {
         mPosition += 2;
+        if (mByteBuffer != null) {
+            requireRemaining(2);
+            return mByteBuffer.getShort();
+        }
         int ch1 = mDataInputStream.read();
         int ch2 = mDataInputStream.read();
         if ((ch1 | ch2) < 0) {
@@ -151,6 +233,10 @@ class ByteOrderedDataInputStream extends InputStream implements DataInput {
     @Override
     public int readInt() throws IOException {
         mPosition += 4;
+        if (mByteBuffer != null) {
+            requireRemaining(4);
+            return mByteBuffer.getInt();
+        }
         int ch1 = mDataInputStream.read();
         int ch2 = mDataInputStream.read();
         int ch3 = mDataInputStream.read();
@@ -178,6 +264,16 @@ class ByteOrderedDataInputStream extends InputStream implements DataInput {
      * first.
      */
     public void skipFully(int n) throws IOException {
+        if (mByteBuffer != null) {
+            if (n > mByteBuffer.remaining()) {
+                throw new EOFException("Reached EOF while skipping " + n + " bytes.");
+            }
+            if (n > 0) {
+                mByteBuffer.position(mByteBuffer.position() + n);
+                mPosition += n;
+            }
+            return;
+        }
         int totalSkipped = 0;
         while (totalSkipped < n) {
             int skipped = (int) mDataInputStream.skip(n - totalSkipped);
@@ -198,6 +294,10 @@ class ByteOrderedDataInputStream extends InputStream implements DataInput {
     @Override
     public int readUnsignedShort() throws IOException {
         mPosition += 2;
+        if (mByteBuffer != null) {
+            requireRemaining(2);
+            return mByteBuffer.getShort() & 0xffff;
+        }
         int ch1 = mDataInputStream.read();
         int ch2 = mDataInputStream.read();
         if ((ch1 | ch2) < 0) {
@@ -218,6 +318,10 @@ class ByteOrderedDataInputStream extends InputStream implements DataInput {
     @Override
     public long readLong() throws IOException {
         mPosition += 8;
+        if (mByteBuffer != null) {
+            requireRemaining(8);
+            return mByteBuffer.getLong();
+        }
         int ch1 = mDataInputStream.read();
         int ch2 = mDataInputStream.read();
         int ch3 = mDataInputStream.read();
@@ -267,12 +371,27 @@ class ByteOrderedDataInputStream extends InputStream implements DataInput {
         return mLength;
     }
 
+    /**
+     * Returns the underlying data input stream or {@code null} if this stream reads from a
+     * {@link ByteBuffer}.
+     */
     public DataInputStream getDataInputStream() {
         return mDataInputStream;
     }
 
+    /**
+     * Returns the underlying buffer or {@code null} if this stream reads from a
+     * {@link DataInputStream}. Position 0 of the buffer is position 0 of this stream.
+     */
+    ByteBuffer getByteBuffer() {
+        return mByteBuffer;
+    }
+
     public void setByteOrder(ByteOrder byteOrder) {
         mByteOrder = byteOrder;
+        if (mByteBuffer != null && byteOrder != null) {
+            mByteBuffer.order(byteOrder);
+        }
     }
 
     public int getPosition() {
@@ -285,6 +404,12 @@ class ByteOrderedDataInputStream extends InputStream implements DataInput {
 
     /** Reads all remaining data. */
     public byte[] readToEnd() throws IOException {
+        if (mByteBuffer != null) {
+            byte[] data = new byte[mByteBuffer.remaining()];
+            mByteBuffer.get(data);
+            mPosition += data.length;
+            return data;
+        }
         byte[] data = new byte[1024];
         int bytesRead = 0;
         while (true) {
@@ -301,4 +426,12 @@ class ByteOrderedDataInputStream extends InputStream implements DataInput {
         }
         return Arrays.copyOf(data, bytesRead);
     }
+
+    private void requireRemaining(int n) throws EOFException {
+        if (mByteBuffer.remaining() < n) {
+            // Consume the remaining bytes like a stream would before reaching EOF.
+            mByteBuffer.position(mByteBuffer.limit());
+            throw new EOFException();
+        }
+    }
 }
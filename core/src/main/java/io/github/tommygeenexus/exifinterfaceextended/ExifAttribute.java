@@ -0,0 +1,713 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A class for indicating EXIF attribute.
+ */
+class ExifAttribute {
+
+    private static final String TAG = "ExifAttribute";
+
+    public static final long BYTES_OFFSET_UNKNOWN = -1;
+
+    private final int mFormat;
+    private final int mNumberOfComponents;
+    private final long mBytesOffset;
+    // The value is stored in mBytes[mOffset, mOffset + mLength). mBytes may be a buffer shared
+    // with other attributes (e.g. the whole EXIF segment), in which case it is only copied when
+    // the bytes are exported via getBytes().
+    private final byte[] mBytes;
+    private final int mOffset;
+    private final int mLength;
+    // The copy of the value returned by getBytes() if mBytes is a shared buffer
+    private volatile byte[] mCopiedBytes;
+
+    // The decoded value and its string form, cached for the byte order they were decoded in.
+    private volatile DecodedValue mDecodedValue;
+
+    /**
+     * A decoded value, published as a whole so readers never mix the fields of two decodes.
+     */
+    private static final class DecodedValue {
+        final ByteOrder mByteOrder;
+        final Object mValue;
+        final String mStringValue;
+
+        DecodedValue(ByteOrder byteOrder, Object value, String stringValue) {
+            mByteOrder = byteOrder;
+            mValue = value;
+            mStringValue = stringValue;
+        }
+    }
+
+    ExifAttribute(int format, int numberOfComponents, byte[] bytes) {
+        this(format, numberOfComponents, BYTES_OFFSET_UNKNOWN, bytes);
+    }
+
+    ExifAttribute(int format, int numberOfComponents, long bytesOffset, byte[] bytes) {
+        this(format, numberOfComponents, bytesOffset, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Creates an attribute whose value is the given range of a shared buffer. The buffer must
+     * not be modified afterwards.
+     */
+    ExifAttribute(int format, int numberOfComponents, long bytesOffset, byte[] buffer,
+            int offset, int length) {
+        this.mFormat = format;
+        this.mNumberOfComponents = numberOfComponents;
+        this.mBytesOffset = bytesOffset;
+        this.mBytes = buffer;
+        this.mOffset = offset;
+        this.mLength = length;
+    }
+
+    public static ExifAttribute createUShort(int[] values, ByteOrder byteOrder) {
+        final ByteBuffer buffer = ByteBuffer.wrap(
+                new byte[ExifInterfaceExtendedCore.IFD_FORMAT_BYTES_PER_FORMAT[ExifInterfaceExtendedCore.IFD_FORMAT_USHORT] * values.length]);
+        buffer.order(byteOrder);
+        for (int value : values) {
+            buffer.putShort((short) value);
+        }
+        return new ExifAttribute(ExifInterfaceExtendedCore.IFD_FORMAT_USHORT, values.length, buffer.array());
+    }
+
+    public static ExifAttribute createUShort(int value, ByteOrder byteOrder) {
+        return createUShort(new int[]{value}, byteOrder);
+    }
+
+    public static ExifAttribute createULong(long[] values, ByteOrder byteOrder) {
+        final ByteBuffer buffer = ByteBuffer.wrap(
+                new byte[ExifInterfaceExtendedCore.IFD_FORMAT_BYTES_PER_FORMAT[ExifInterfaceExtendedCore.IFD_FORMAT_ULONG] * values.length]);
+        buffer.order(byteOrder);
+        for (long value : values) {
+            buffer.putInt((int) value);
+        }
+        return new ExifAttribute(ExifInterfaceExtendedCore.IFD_FORMAT_ULONG, values.length, buffer.array());
+    }
+
+    public static ExifAttribute createULong(long value, ByteOrder byteOrder) {
+        return createULong(new long[]{value}, byteOrder);
+    }
+
+    public static ExifAttribute createSLong(int[] values, ByteOrder byteOrder) {
+        final ByteBuffer buffer = ByteBuffer.wrap(
+                new byte[ExifInterfaceExtendedCore.IFD_FORMAT_BYTES_PER_FORMAT[ExifInterfaceExtendedCore.IFD_FORMAT_SLONG] * values.length]);
+        buffer.order(byteOrder);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        return new ExifAttribute(ExifInterfaceExtendedCore.IFD_FORMAT_SLONG, values.length, buffer.array());
+    }
+
+    public static ExifAttribute createByte(String value) {
+        // Exception for GPSAltitudeRef tag
+        if (value.length() == 1 && value.charAt(0) >= '0' && value.charAt(0) <= '1') {
+            final byte[] bytes = new byte[]{(byte) (value.charAt(0) - '0')};
+            return new ExifAttribute(ExifInterfaceExtendedCore.IFD_FORMAT_BYTE, bytes.length, bytes);
+        }
+        final byte[] ascii = value.getBytes(ExifInterfaceExtendedCore.ASCII);
+        return new ExifAttribute(ExifInterfaceExtendedCore.IFD_FORMAT_BYTE, ascii.length, ascii);
+    }
+
+    public static ExifAttribute createString(String value) {
+        final byte[] ascii = (value + '\0').getBytes(ExifInterfaceExtendedCore.ASCII);
+        return new ExifAttribute(ExifInterfaceExtendedCore.IFD_FORMAT_STRING, ascii.length, ascii);
+    }
+
+    public static ExifAttribute createUcs2String(String value) {
+        final byte[] bytes = (value + "\0").getBytes(ExifInterfaceExtendedCore.UCS2);
+        return new ExifAttribute(ExifInterfaceExtendedCore.IFD_FORMAT_UCS2LE_STRING, bytes.length, bytes);
+    }
+
+    public static ExifAttribute createURational(Rational[] values, ByteOrder byteOrder) {
+        final ByteBuffer buffer = ByteBuffer.wrap(
+                new byte[ExifInterfaceExtendedCore.IFD_FORMAT_BYTES_PER_FORMAT[ExifInterfaceExtendedCore.IFD_FORMAT_URATIONAL] * values.length]);
+        buffer.order(byteOrder);
+        for (Rational value : values) {
+            buffer.putInt((int) value.getNumerator());
+            buffer.putInt((int) value.getDenominator());
+        }
+        return new ExifAttribute(ExifInterfaceExtendedCore.IFD_FORMAT_URATIONAL, values.length, buffer.array());
+    }
+
+    public static ExifAttribute createURational(Rational value, ByteOrder byteOrder) {
+        return createURational(new Rational[]{value}, byteOrder);
+    }
+
+    public static ExifAttribute createSRational(Rational[] values, ByteOrder byteOrder) {
+        final ByteBuffer buffer = ByteBuffer.wrap(
+                new byte[ExifInterfaceExtendedCore.IFD_FORMAT_BYTES_PER_FORMAT[ExifInterfaceExtendedCore.IFD_FORMAT_SRATIONAL] * values.length]);
+        buffer.order(byteOrder);
+        for (Rational value : values) {
+            buffer.putInt((int) value.getNumerator());
+            buffer.putInt((int) value.getDenominator());
+        }
+        return new ExifAttribute(ExifInterfaceExtendedCore.IFD_FORMAT_SRATIONAL, values.length, buffer.array());
+    }
+
+    public static ExifAttribute createDouble(double[] values, ByteOrder byteOrder) {
+        final ByteBuffer buffer = ByteBuffer.wrap(
+                new byte[ExifInterfaceExtendedCore.IFD_FORMAT_BYTES_PER_FORMAT[ExifInterfaceExtendedCore.IFD_FORMAT_DOUBLE] * values.length]);
+        buffer.order(byteOrder);
+        for (double value : values) {
+            buffer.putDouble(value);
+        }
+        return new ExifAttribute(ExifInterfaceExtendedCore.IFD_FORMAT_DOUBLE, values.length, buffer.array());
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return "(" + ExifInterfaceExtendedCore.IFD_FORMAT_NAMES[mFormat] + ", data length:" + mLength + ")";
+    }
+
+    /**
+     * Returns the decoded value, which is one of String, int[], long[], double[] and Rational[].
+     * The value is decoded once per byte order and cached, so the returned arrays must not be
+     * modified.
+     */
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    Object getValue(ByteOrder byteOrder) {
+        return getDecodedValue(byteOrder).mValue;
+    }
+
+    private DecodedValue getDecodedValue(ByteOrder byteOrder) {
+        DecodedValue decodedValue = mDecodedValue;
+        if (decodedValue == null || decodedValue.mByteOrder != byteOrder) {
+            decodedValue = new DecodedValue(byteOrder, decodeValue(byteOrder), null);
+            mDecodedValue = decodedValue;
+        }
+        return decodedValue;
+    }
+
+    private Object decodeValue(ByteOrder byteOrder) {
+        ByteOrderedDataInputStream inputStream = null;
+        try {
+            inputStream = new ByteOrderedDataInputStream(mBytes, mOffset, mLength);
+            inputStream.setByteOrder(byteOrder);
+            switch (mFormat) {
+                case ExifInterfaceExtendedCore.IFD_FORMAT_BYTE:
+                case ExifInterfaceExtendedCore.IFD_FORMAT_SBYTE: {
+                    // Exception for GPSAltitudeRef tag
+                    if (mLength == 1 && mBytes[mOffset] >= 0 && mBytes[mOffset] <= 1) {
+                        return String.valueOf((char) (mBytes[mOffset] + '0'));
+                    }
+                    return new String(mBytes, mOffset, mLength, ExifInterfaceExtendedCore.ASCII);
+                }
+                case ExifInterfaceExtendedCore.IFD_FORMAT_UNDEFINED:
+                case ExifInterfaceExtendedCore.IFD_FORMAT_STRING: {
+                    int index = 0;
+                    // Never read past the value, since mBytes may be shared with other values.
+                    final int length = Math.min(mNumberOfComponents, mLength);
+                    if (length >= ExifInterfaceExtendedCore.EXIF_ASCII_PREFIX.length) {
+                        boolean same = true;
+                        for (int i = 0; i < ExifInterfaceExtendedCore.EXIF_ASCII_PREFIX.length; ++i) {
+                            if (mBytes[mOffset + i] != ExifInterfaceExtendedCore.EXIF_ASCII_PREFIX[i]) {
+                                same = false;
+                                break;
+                            }
+                        }
+                        if (same) {
+                            index = ExifInterfaceExtendedCore.EXIF_ASCII_PREFIX.length;
+                        }
+                    }
+
+                    StringBuilder stringBuilder = new StringBuilder();
+                    while (index < length) {
+                        int ch = mBytes[mOffset + index];
+                        if (ch == 0) {
+                            break;
+                        }
+                        if (ch >= 32) {
+                            stringBuilder.append((char) ch);
+                        } else {
+                            stringBuilder.append('?');
+                        }
+                        ++index;
+                    }
+                    return stringBuilder.toString();
+                }
+                case ExifInterfaceExtendedCore.IFD_FORMAT_USHORT: {
+                    final int[] values = new int[mNumberOfComponents];
+                    for (int i = 0; i < mNumberOfComponents; ++i) {
+                        values[i] = inputStream.readUnsignedShort();
+                    }
+                    return values;
+                }
+                case ExifInterfaceExtendedCore.IFD_FORMAT_ULONG: {
+                    final long[] values = new long[mNumberOfComponents];
+                    for (int i = 0; i < mNumberOfComponents; ++i) {
+                        values[i] = inputStream.readUnsignedInt();
+                    }
+                    return values;
+                }
+                case ExifInterfaceExtendedCore.IFD_FORMAT_URATIONAL: {
+                    final Rational[] values = new Rational[mNumberOfComponents];
+                    for (int i = 0; i < mNumberOfComponents; ++i) {
+                        final long numerator = inputStream.readUnsignedInt();
+                        final long denominator = inputStream.readUnsignedInt();
+                        values[i] = new Rational(numerator, denominator);
+                    }
+                    return values;
+                }
+                case ExifInterfaceExtendedCore.IFD_FORMAT_SSHORT: {
+                    final int[] values = new int[mNumberOfComponents];
+                    for (int i = 0; i < mNumberOfComponents; ++i) {
+                        values[i] = inputStream.readShort();
+                    }
+                    return values;
+                }
+                case ExifInterfaceExtendedCore.IFD_FORMAT_SLONG: {
+                    final int[] values = new int[mNumberOfComponents];
+                    for (int i = 0; i < mNumberOfComponents; ++i) {
+                        values[i] = inputStream.readInt();
+                    }
+                    return values;
+                }
+                case ExifInterfaceExtendedCore.IFD_FORMAT_SRATIONAL: {
+                    final Rational[] values = new Rational[mNumberOfComponents];
+                    for (int i = 0; i < mNumberOfComponents; ++i) {
+                        final long numerator = inputStream.readInt();
+                        final long denominator = inputStream.readInt();
+                        values[i] = new Rational(numerator, denominator);
+                    }
+                    return values;
+                }
+                case ExifInterfaceExtendedCore.IFD_FORMAT_SINGLE: {
+                    final double[] values = new double[mNumberOfComponents];
+                    for (int i = 0; i < mNumberOfComponents; ++i) {
+                        values[i] = inputStream.readFloat();
+                    }
+                    return values;
+                }
+                case ExifInterfaceExtendedCore.IFD_FORMAT_DOUBLE: {
+                    final double[] values = new double[mNumberOfComponents];
+                    for (int i = 0; i < mNumberOfComponents; ++i) {
+                        values[i] = inputStream.readDouble();
+                    }
+                    return values;
+                }
+                default:
+                    return null;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "IOException occurred during reading a value", e);
+            return null;
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException e) {
+                    Log.e(TAG, "IOException occurred while closing InputStream", e);
+                }
+            }
+        }
+    }
+
+    public double getDoubleValue(ByteOrder byteOrder) {
+        if (hasSingleComponent() && (isIntegerFormat() || isFloatingPointFormat())) {
+            return getDouble(0, byteOrder);
+        }
+        Object value = getValue(byteOrder);
+        if (value == null) {
+            throw new NumberFormatException("NULL can't be converted to a double value");
+        }
+        if (value instanceof String) {
+            return Double.parseDouble((String) value);
+        }
+        if (value instanceof long[]) {
+            long[] array = (long[]) value;
+            if (array.length == 1) {
+                return array[0];
+            }
+            throw new NumberFormatException("There are more than one component");
+        }
+        if (value instanceof int[]) {
+            int[] array = (int[]) value;
+            if (array.length == 1) {
+                return array[0];
+            }
+            throw new NumberFormatException("There are more than one component");
+        }
+        if (value instanceof double[]) {
+            double[] array = (double[]) value;
+            if (array.length == 1) {
+                return array[0];
+            }
+            throw new NumberFormatException("There are more than one component");
+        }
+        if (value instanceof Rational[]) {
+            Rational[] array = (Rational[]) value;
+            if (array.length == 1) {
+                return array[0].calculate();
+            }
+            throw new NumberFormatException("There are more than one component");
+        }
+        throw new NumberFormatException("Couldn't find a double value");
+    }
+
+    public int getIntValue(ByteOrder byteOrder) {
+        if (hasSingleComponent() && isIntegerFormat()) {
+            return (int) getLong(0, byteOrder);
+        }
+        Object value = getValue(byteOrder);
+        if (value == null) {
+            throw new NumberFormatException("NULL can't be converted to a integer value");
+        }
+        if (value instanceof String) {
+            return Integer.parseInt((String) value);
+        }
+        if (value instanceof long[]) {
+            long[] array = (long[]) value;
+            if (array.length == 1) {
+                return (int) array[0];
+            }
+            throw new NumberFormatException("There are more than one component");
+        }
+        if (value instanceof int[]) {
+            int[] array = (int[]) value;
+            if (array.length == 1) {
+                return array[0];
+            }
+            throw new NumberFormatException("There are more than one component");
+        }
+        throw new NumberFormatException("Couldn't find a integer value");
+    }
+
+    public String getStringValue(ByteOrder byteOrder) {
+        DecodedValue decodedValue = getDecodedValue(byteOrder);
+        if (decodedValue.mValue == null) {
+            return null;
+        }
+        if (decodedValue.mStringValue == null) {
+            decodedValue = new DecodedValue(byteOrder, decodedValue.mValue,
+                    convertToString(decodedValue.mValue));
+            mDecodedValue = decodedValue;
+        }
+        return decodedValue.mStringValue;
+    }
+
+    private static String convertToString(Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+
+        final StringBuilder stringBuilder = new StringBuilder();
+        if (value instanceof long[]) {
+            long[] array = (long[]) value;
+            for (int i = 0; i < array.length; ++i) {
+                stringBuilder.append(array[i]);
+                if (i + 1 != array.length) {
+                    stringBuilder.append(",");
+                }
+            }
+            return stringBuilder.toString();
+        }
+        if (value instanceof int[]) {
+            int[] array = (int[]) value;
+            for (int i = 0; i < array.length; ++i) {
+                stringBuilder.append(array[i]);
+                if (i + 1 != array.length) {
+                    stringBuilder.append(",");
+                }
+            }
+            return stringBuilder.toString();
+        }
+        if (value instanceof double[]) {
+            double[] array = (double[]) value;
+            for (int i = 0; i < array.length; ++i) {
+                stringBuilder.append(array[i]);
+                if (i + 1 != array.length) {
+                    stringBuilder.append(",");
+                }
+            }
+            return stringBuilder.toString();
+        }
+        if (value instanceof Rational[]) {
+            Rational[] array = (Rational[]) value;
+            for (int i = 0; i < array.length; ++i) {
+                stringBuilder.append(array[i].getNumerator());
+                stringBuilder.append('/');
+                stringBuilder.append(array[i].getDenominator());
+                if (i + 1 != array.length) {
+                    stringBuilder.append(",");
+                }
+            }
+            return stringBuilder.toString();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the unsigned short component at the given index, read directly from the raw bytes.
+     *
+     * @throws NumberFormatException if the format is not unsigned short.
+     * @throws IndexOutOfBoundsException if there is no component at the given index.
+     */
+    public int getUnsignedShort(int index, ByteOrder byteOrder) {
+        if (mFormat != ExifInterfaceExtendedCore.IFD_FORMAT_USHORT) {
+            throw new NumberFormatException("Couldn't find an unsigned short value");
+        }
+        return readUnsignedShort(getComponentPosition(index), byteOrder);
+    }
+
+    /**
+     * Returns the unsigned long component at the given index, read directly from the raw bytes.
+     *
+     * @throws NumberFormatException if the format is not unsigned long.
+     * @throws IndexOutOfBoundsException if there is no component at the given index.
+     */
+    public long getUnsignedInt(int index, ByteOrder byteOrder) {
+        if (mFormat != ExifInterfaceExtendedCore.IFD_FORMAT_ULONG) {
+            throw new NumberFormatException("Couldn't find an unsigned long value");
+        }
+        return readInt(getComponentPosition(index), byteOrder) & 0xffffffffL;
+    }
+
+    /**
+     * Returns the numerator of the rational component at the given index, read directly from
+     * the raw bytes. Like {@link Rational}, a zero denominator results in 0/1.
+     *
+     * @throws NumberFormatException if the format is not rational.
+     * @throws IndexOutOfBoundsException if there is no component at the given index.
+     */
+    public long getRationalNumerator(int index, ByteOrder byteOrder) {
+        final int position = getRationalPosition(index);
+        if (readRationalPart(position + 4, byteOrder) == 0) {
+            return 0;
+        }
+        return readRationalPart(position, byteOrder);
+    }
+
+    /**
+     * Returns the denominator of the rational component at the given index, read directly from
+     * the raw bytes. Like {@link Rational}, a zero denominator results in 0/1.
+     *
+     * @throws NumberFormatException if the format is not rational.
+     * @throws IndexOutOfBoundsException if there is no component at the given index.
+     */
+    public long getRationalDenominator(int index, ByteOrder byteOrder) {
+        final long denominator = readRationalPart(getRationalPosition(index) + 4, byteOrder);
+        return denominator == 0 ? 1 : denominator;
+    }
+
+    /**
+     * Returns the integer component at the given index, read directly from the raw bytes.
+     *
+     * @throws NumberFormatException if the format is not an integer format.
+     * @throws IndexOutOfBoundsException if there is no component at the given index.
+     */
+    public long getLong(int index, ByteOrder byteOrder) {
+        switch (mFormat) {
+            case ExifInterfaceExtendedCore.IFD_FORMAT_USHORT:
+                return readUnsignedShort(getComponentPosition(index), byteOrder);
+            case ExifInterfaceExtendedCore.IFD_FORMAT_SSHORT:
+                return (short) readUnsignedShort(getComponentPosition(index), byteOrder);
+            case ExifInterfaceExtendedCore.IFD_FORMAT_ULONG:
+                return readInt(getComponentPosition(index), byteOrder) & 0xffffffffL;
+            case ExifInterfaceExtendedCore.IFD_FORMAT_SLONG:
+                return readInt(getComponentPosition(index), byteOrder);
+            default:
+                throw new NumberFormatException("Couldn't find a integer value");
+        }
+    }
+
+    /**
+     * Returns the numeric component at the given index as a double, read directly from the raw
+     * bytes.
+     *
+     * @throws NumberFormatException if the format is not numeric.
+     * @throws IndexOutOfBoundsException if there is no component at the given index.
+     */
+    public double getDouble(int index, ByteOrder byteOrder) {
+        switch (mFormat) {
+            case ExifInterfaceExtendedCore.IFD_FORMAT_URATIONAL:
+            case ExifInterfaceExtendedCore.IFD_FORMAT_SRATIONAL:
+                return (double) getRationalNumerator(index, byteOrder)
+                        / getRationalDenominator(index, byteOrder);
+            case ExifInterfaceExtendedCore.IFD_FORMAT_SINGLE:
+                return Float.intBitsToFloat(readInt(getComponentPosition(index), byteOrder));
+            case ExifInterfaceExtendedCore.IFD_FORMAT_DOUBLE:
+                return Double.longBitsToDouble(readLong(getComponentPosition(index), byteOrder));
+            default:
+                if (isIntegerFormat()) {
+                    return getLong(index, byteOrder);
+                }
+                throw new NumberFormatException("Couldn't find a double value");
+        }
+    }
+
+    /**
+     * Returns the length of a string value without decoding it, i.e. the number of bytes before
+     * its NUL terminator or its last component, or 0 if the value is not a string.
+     */
+    public int getAsciiLength() {
+        if (mFormat != ExifInterfaceExtendedCore.IFD_FORMAT_STRING
+                && mFormat != ExifInterfaceExtendedCore.IFD_FORMAT_UNDEFINED
+                && mFormat != ExifInterfaceExtendedCore.IFD_FORMAT_BYTE) {
+            return 0;
+        }
+        final int length = Math.min(mNumberOfComponents, mLength);
+        for (int i = 0; i < length; i++) {
+            if (mBytes[mOffset + i] == 0) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Returns the character at the given index of a string value, read directly from the raw
+     * bytes. The index should be less than {@link #getAsciiLength()}, this is not checked.
+     *
+     * @throws IndexOutOfBoundsException if the index is outside of the value.
+     */
+    public char getAsciiChar(int index) {
+        if (index < 0 || index >= Math.min(mNumberOfComponents, mLength)) {
+            throw new IndexOutOfBoundsException("Invalid character index: " + index);
+        }
+        return (char) (mBytes[mOffset + index] & 0xff);
+    }
+
+    private boolean hasSingleComponent() {
+        return mNumberOfComponents == 1 && size() <= mLength;
+    }
+
+    private boolean isIntegerFormat() {
+        return mFormat == ExifInterfaceExtendedCore.IFD_FORMAT_USHORT
+                || mFormat == ExifInterfaceExtendedCore.IFD_FORMAT_SSHORT
+                || mFormat == ExifInterfaceExtendedCore.IFD_FORMAT_ULONG
+                || mFormat == ExifInterfaceExtendedCore.IFD_FORMAT_SLONG;
+    }
+
+    private boolean isFloatingPointFormat() {
+        return mFormat == ExifInterfaceExtendedCore.IFD_FORMAT_URATIONAL
+                || mFormat == ExifInterfaceExtendedCore.IFD_FORMAT_SRATIONAL
+                || mFormat == ExifInterfaceExtendedCore.IFD_FORMAT_SINGLE
+                || mFormat == ExifInterfaceExtendedCore.IFD_FORMAT_DOUBLE;
+    }
+
+    private int getRationalPosition(int index) {
+        if (mFormat != ExifInterfaceExtendedCore.IFD_FORMAT_URATIONAL
+                && mFormat != ExifInterfaceExtendedCore.IFD_FORMAT_SRATIONAL) {
+            throw new NumberFormatException("Couldn't find a rational value");
+        }
+        return getComponentPosition(index);
+    }
+
+    private long readRationalPart(int position, ByteOrder byteOrder) {
+        final int value = readInt(position, byteOrder);
+        return mFormat == ExifInterfaceExtendedCore.IFD_FORMAT_URATIONAL ? value & 0xffffffffL : value;
+    }
+
+    // Returns the position of the component in mBytes.
+    private int getComponentPosition(int index) {
+        final int bytesPerFormat = ExifInterfaceExtendedCore.IFD_FORMAT_BYTES_PER_FORMAT[mFormat];
+        if (index < 0 || index >= mNumberOfComponents
+                || (index + 1) * bytesPerFormat > mLength) {
+            throw new IndexOutOfBoundsException("Invalid component index: " + index);
+        }
+        return mOffset + index * bytesPerFormat;
+    }
+
+    private int readUnsignedShort(int position, ByteOrder byteOrder) {
+        final int ch1 = mBytes[position] & 0xff;
+        final int ch2 = mBytes[position + 1] & 0xff;
+        if (byteOrder == ByteOrder.LITTLE_ENDIAN) {
+            return (ch2 << 8) + ch1;
+        }
+        return (ch1 << 8) + ch2;
+    }
+
+    private int readInt(int position, ByteOrder byteOrder) {
+        final int ch1 = mBytes[position] & 0xff;
+        final int ch2 = mBytes[position + 1] & 0xff;
+        final int ch3 = mBytes[position + 2] & 0xff;
+        final int ch4 = mBytes[position + 3] & 0xff;
+        if (byteOrder == ByteOrder.LITTLE_ENDIAN) {
+            return (ch4 << 24) + (ch3 << 16) + (ch2 << 8) + ch1;
+        }
+        return (ch1 << 24) + (ch2 << 16) + (ch3 << 8) + ch4;
+    }
+
+    private long readLong(int position, ByteOrder byteOrder) {
+        final long first = readInt(position, byteOrder) & 0xffffffffL;
+        final long second = readInt(position + 4, byteOrder) & 0xffffffffL;
+        if (byteOrder == ByteOrder.LITTLE_ENDIAN) {
+            return (second << 32) | first;
+        }
+        return (first << 32) | second;
+    }
+
+    public int size() {
+        return ExifInterfaceExtendedCore.IFD_FORMAT_BYTES_PER_FORMAT[mFormat] * mNumberOfComponents;
+    }
+
+    /**
+     * Returns the raw bytes of the value. If the value references a shared buffer, the bytes are
+     * copied once and the copy is returned from then on.
+     */
+    public byte[] getBytes() {
+        if (mOffset == 0 && mLength == mBytes.length) {
+            return mBytes;
+        }
+        byte[] bytes = mCopiedBytes;
+        if (bytes == null) {
+            // Concurrent callers may copy the bytes more than once, which is harmless
+            bytes = Arrays.copyOfRange(mBytes, mOffset, mOffset + mLength);
+            mCopiedBytes = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the number of raw bytes of the value without copying them.
+     */
+    public int getBytesLength() {
+        return mLength;
+    }
+
+    /**
+     * Writes the raw bytes of the value without copying them.
+     */
+    public void writeBytes(OutputStream out) throws IOException {
+        out.write(mBytes, mOffset, mLength);
+    }
+
+    public int getFormat() {
+        return mFormat;
+    }
+
+    public int getNumberOfComponents() {
+        return mNumberOfComponents;
+    }
+
+    public long getBytesOffset() {
+        return mBytesOffset;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The EXIF attributes of one IFD, stored in parallel arrays sorted by tag number.
+ * <p>
+ * Entries are identified by tag name like in a {@code HashMap<String, ExifAttribute>}, but are
+ * located by a binary search on the tag number, so lookups by number do not need to hash or
+ * compare strings. Names are resolved to numbers with the tag table of the IFD the map was
+ * created for, which stays with the map if it is moved to another IFD, or with the table of all
+ * tags for names which are not part of that IFD. Several entries may share a tag number, e.g.
+ * {@code ImageLength} and {@code ThumbnailImageLength}, since they are still distinct names.
+ */
+class ExifAttributeMap {
+
+    private static final int INITIAL_CAPACITY = 8;
+    // Sorts names which are not part of any tag table before all tags.
+    private static final int UNKNOWN_TAG_NUMBER = -1;
+    // Shared by all empty maps, most IFDs of a file have no entries.
+    private static final int[] EMPTY_NUMBERS = new int[0];
+    private static final String[] EMPTY_NAMES = new String[0];
+    private static final ExifAttribute[] EMPTY_VALUES = new ExifAttribute[0];
+
+    private final Map<String, ExifTag> mTags;
+    private final Map<String, ExifTag> mFallbackTags;
+
+    private int[] mNumbers = EMPTY_NUMBERS;
+    private String[] mNames = EMPTY_NAMES;
+    private ExifAttribute[] mValues = EMPTY_VALUES;
+    private int mSize;
+
+    /**
+     * @param tags the tags of the IFD this map is created for, by name.
+     * @param fallbackTags the tags of all IFDs, by name.
+     */
+    ExifAttributeMap(Map<String, ExifTag> tags, Map<String, ExifTag> fallbackTags) {
+        mTags = tags;
+        mFallbackTags = fallbackTags;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Returns the attribute of the tag with the given name or {@code null} if there is none.
+     */
+    ExifAttribute get(String name) {
+        if (mSize == 0) {
+            return null;
+        }
+        final int index = indexOf(getTagNumber(name), name);
+        return index >= 0 ? mValues[index] : null;
+    }
+
+    /**
+     * Returns the index of the first entry with the given tag number or -1 if there is none.
+     */
+    int indexOf(int number) {
+        int index = binarySearch(number);
+        return index < mSize && mNumbers[index] == number ? index : -1;
+    }
+
+    /**
+     * Adds the attribute of the tag with the given name or replaces its current attribute.
+     */
+    void put(String name, ExifAttribute value) {
+        final int number = getTagNumber(name);
+        int index = binarySearch(number);
+        for (int i = index; i < mSize && mNumbers[i] == number; ++i) {
+            if (mNames[i].equals(name)) {
+                mValues[i] = value;
+                return;
+            }
+        }
+        // Keep the insertion order among entries which share a tag number.
+        while (index < mSize && mNumbers[index] == number) {
+            ++index;
+        }
+        if (mSize == mNumbers.length) {
+            final int capacity = Math.max(INITIAL_CAPACITY, mSize * 2);
+            mNumbers = Arrays.copyOf(mNumbers, capacity);
+            mNames = Arrays.copyOf(mNames, capacity);
+            mValues = Arrays.copyOf(mValues, capacity);
+        }
+        final int moved = mSize - index;
+        System.arraycopy(mNumbers, index, mNumbers, index + 1, moved);
+        System.arraycopy(mNames, index, mNames, index + 1, moved);
+        System.arraycopy(mValues, index, mValues, index + 1, moved);
+        mNumbers[index] = number;
+        mNames[index] = name;
+        mValues[index] = value;
+        ++mSize;
+    }
+
+    /**
+     * Removes the attribute of the tag with the given name and returns it, or {@code null} if
+     * there is none.
+     */
+    ExifAttribute remove(String name) {
+        if (mSize == 0) {
+            return null;
+        }
+        final int index = indexOf(getTagNumber(name), name);
+        if (index < 0) {
+            return null;
+        }
+        final ExifAttribute value = mValues[index];
+        removeAt(index);
+        return value;
+    }
+
+    /**
+     * Removes the entry at the given index. Entries after it move one index down.
+     */
+    void removeAt(int index) {
+        final int moved = mSize - index - 1;
+        System.arraycopy(mNumbers, index + 1, mNumbers, index, moved);
+        System.arraycopy(mNames, index + 1, mNames, index, moved);
+        System.arraycopy(mValues, index + 1, mValues, index, moved);
+        --mSize;
+        mNames[mSize] = null;
+        mValues[mSize] = null;
+    }
+
+    /**
+     * Returns the tag number of the entry at the given index, entries are sorted by it.
+     */
+    int getNumber(int index) {
+        return mNumbers[index];
+    }
+
+    String getName(int index) {
+        return mNames[index];
+    }
+
+    ExifAttribute getValue(int index) {
+        return mValues[index];
+    }
+
+    private int getTagNumber(String name) {
+        ExifTag tag = mTags.get(name);
+        if (tag == null) {
+            tag = mFallbackTags.get(name);
+        }
+        return tag != null ? tag.getNumber() : UNKNOWN_TAG_NUMBER;
+    }
+
+    private int indexOf(int number, String name) {
+        for (int i = binarySearch(number); i < mSize && mNumbers[i] == number; ++i) {
+            if (mNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first entry with a tag number which is not less than the given
+     * one, or the size of this map if there is none.
+     */
+    private int binarySearch(int number) {
+        int low = 0;
+        int high = mSize;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (mNumbers[mid] < number) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Parses and formats EXIF date and time values with the fixed layouts {@code yyyy:MM:dd HH:mm:ss}
+ * and {@code yyyy-MM-dd HH:mm:ss}. See JEITA CP-3451C Section 4.6.4. D. Other Tags, DateTime.
+ * <p>
+ * Values are parsed directly from the raw bytes of the attributes. Unlike
+ * {@link java.text.SimpleDateFormat}, this class has no state, so it may be used by multiple
+ * threads concurrently. Fields outside of their range (e.g. month 13) roll over like with lenient
+ * parsing. Dates are in the proleptic Gregorian calendar and times are in UTC.
+ */
+final class ExifDateTime {
+
+    /**
+     * Returned by the parse methods if the value is malformed.
+     */
+    static final long INVALID = Long.MIN_VALUE;
+
+    private static final int DATE_LENGTH = 10;
+    private static final int DATE_TIME_LENGTH = 19;
+    private static final int OFFSET_TIME_LENGTH = 6;
+    private static final int SUB_SECONDS_DIGITS = 3;
+    private static final int MAX_OFFSET_HOURS = 14;
+    private static final long MILLIS_PER_DAY = 86400000L;
+    // The number of days from 0000-03-01 to 1970-01-01 and in a cycle of 400 years.
+    private static final long DAYS_0000_TO_1970 = 719468L;
+    private static final long DAYS_PER_400_YEARS = 146097L;
+
+    private ExifDateTime() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Returns the date and time value as milliseconds since 1970-01-01 00:00:00, or
+     * {@link #INVALID} if the value does not start with one of the layouts or all of its fields
+     * are zero. Characters following the layout are ignored.
+     */
+    static long parseDateTime(@NonNull ExifAttribute attribute) {
+        if (attribute.getAsciiLength() < DATE_TIME_LENGTH
+                || !hasDateSeparators(attribute)
+                || attribute.getAsciiChar(DATE_LENGTH) != ' '
+                || attribute.getAsciiChar(13) != ':'
+                || attribute.getAsciiChar(16) != ':') {
+            return INVALID;
+        }
+        final int year = parseDigits(attribute, 0, 4);
+        final int month = parseDigits(attribute, 5, 2);
+        final int day = parseDigits(attribute, 8, 2);
+        final int hour = parseDigits(attribute, 11, 2);
+        final int minute = parseDigits(attribute, 14, 2);
+        final int second = parseDigits(attribute, 17, 2);
+        // Fields which are not digits are negative, fields which are all zero are unknown.
+        if ((year | month | day | hour | minute | second) <= 0) {
+            return INVALID;
+        }
+        return toEpochDay(year, month, day) * MILLIS_PER_DAY
+                + ((hour * 60L + minute) * 60 + second) * 1000;
+    }
+
+    /**
+     * Returns the date value ({@code yyyy:MM:dd} or {@code yyyy-MM-dd}) as milliseconds since
+     * 1970-01-01 00:00:00, or {@link #INVALID} if the value has a different layout or all of its
+     * fields are zero.
+     */
+    static long parseDate(@NonNull ExifAttribute attribute) {
+        if (attribute.getAsciiLength() != DATE_LENGTH || !hasDateSeparators(attribute)) {
+            return INVALID;
+        }
+        final int year = parseDigits(attribute, 0, 4);
+        final int month = parseDigits(attribute, 5, 2);
+        final int day = parseDigits(attribute, 8, 2);
+        if ((year | month | day) <= 0) {
+            return INVALID;
+        }
+        return toEpochDay(year, month, day) * MILLIS_PER_DAY;
+    }
+
+    /**
+     * Returns the milliseconds of a sub-second value, i.e. its first three digits. Returns 0 if
+     * the value does not start with digits.
+     */
+    static long parseSubSeconds(@NonNull ExifAttribute attribute) {
+        final int length = Math.min(attribute.getAsciiLength(), SUB_SECONDS_DIGITS);
+        long subSeconds = length > 0 ? parseDigits(attribute, 0, length) : -1;
+        if (subSeconds < 0) {
+            return 0;
+        }
+        for (int i = length; i < SUB_SECONDS_DIGITS; i++) {
+            subSeconds *= 10;
+        }
+        return subSeconds;
+    }
+
+    /**
+     * Returns the milliseconds to add to a local time to convert it to UTC for an offset time
+     * value ({@code +HH:MM} or {@code -HH:MM}). Returns 0 if the sign, the separator or the hours
+     * are out of range, and {@link #INVALID} if the hours or minutes are not digits.
+     */
+    static long parseOffsetTime(@NonNull ExifAttribute attribute) {
+        if (attribute.getAsciiLength() < OFFSET_TIME_LENGTH) {
+            return INVALID;
+        }
+        final int hour = parseDigits(attribute, 1, 2);
+        final int minute = parseDigits(attribute, 4, 2);
+        if (hour < 0 || minute < 0) {
+            return INVALID;
+        }
+        final char sign = attribute.getAsciiChar(0);
+        if ((sign != '+' && sign != '-')
+                || attribute.getAsciiChar(3) != ':'
+                || hour > MAX_OFFSET_HOURS) {
+            return 0;
+        }
+        return (hour * 60L + minute) * 60 * 1000 * (sign == '-' ? 1 : -1);
+    }
+
+    /**
+     * Formats milliseconds since 1970-01-01 00:00:00 as {@code yyyy:MM:dd HH:mm:ss}.
+     */
+    @NonNull
+    static String formatDateTime(long millis) {
+        final StringBuilder builder = new StringBuilder(DATE_TIME_LENGTH);
+        appendDate(builder, Math.floorDiv(millis, MILLIS_PER_DAY));
+        builder.append(' ');
+        appendTime(builder, Math.floorMod(millis, MILLIS_PER_DAY));
+        return builder.toString();
+    }
+
+    /**
+     * Formats the date of milliseconds since 1970-01-01 00:00:00 as {@code yyyy:MM:dd}.
+     */
+    @NonNull
+    static String formatDate(long millis) {
+        final StringBuilder builder = new StringBuilder(DATE_LENGTH);
+        appendDate(builder, Math.floorDiv(millis, MILLIS_PER_DAY));
+        return builder.toString();
+    }
+
+    /**
+     * Formats the time of milliseconds since 1970-01-01 00:00:00 as {@code HH:mm:ss}.
+     */
+    @NonNull
+    static String formatTime(long millis) {
+        final StringBuilder builder = new StringBuilder(DATE_TIME_LENGTH - DATE_LENGTH - 1);
+        appendTime(builder, Math.floorMod(millis, MILLIS_PER_DAY));
+        return builder.toString();
+    }
+
+    private static boolean hasDateSeparators(ExifAttribute attribute) {
+        final char separator = attribute.getAsciiChar(4);
+        return (separator == ':' || separator == '-') && attribute.getAsciiChar(7) == separator;
+    }
+
+    /**
+     * Returns the value of the decimal digits at the given index, or -1 if one of the characters
+     * is not a digit.
+     */
+    private static int parseDigits(ExifAttribute attribute, int index, int count) {
+        int value = 0;
+        for (int i = index; i < index + count; i++) {
+            final char ch = attribute.getAsciiChar(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+
+    private static long toEpochDay(long year, int month, int day) {
+        // Roll months outside of 1 to 12 over into the year.
+        year += Math.floorDiv(month - 1, 12);
+        month = Math.floorMod(month - 1, 12) + 1;
+        // Count the years from March on, so that the leap day is the last day of a year.
+        if (month <= 2) {
+            year--;
+        }
+        final long era = Math.floorDiv(year, 400);
+        final long yearOfEra = year - era * 400;
+        final long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_400_YEARS + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    private static void appendDate(StringBuilder builder, long epochDay) {
+        final long days = epochDay + DAYS_0000_TO_1970;
+        final long era = Math.floorDiv(days, DAYS_PER_400_YEARS);
+        final long dayOfEra = days - era * DAYS_PER_400_YEARS;
+        final long yearOfEra =
+                (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final long dayOfYear = dayOfEra - (yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100);
+        final int monthFromMarch = (int) ((dayOfYear * 5 + 2) / 153);
+        final int day = (int) (dayOfYear - (monthFromMarch * 153 + 2) / 5 + 1);
+        final int month = monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9;
+        final long year = era * 400 + yearOfEra + (month <= 2 ? 1 : 0);
+        appendDigits(builder, year, 4);
+        builder.append(':');
+        appendDigits(builder, month, 2);
+        builder.append(':');
+        appendDigits(builder, day, 2);
+    }
+
+    private static void appendTime(StringBuilder builder, long millisOfDay) {
+        final long seconds = millisOfDay / 1000;
+        appendDigits(builder, seconds / 3600, 2);
+        builder.append(':');
+        appendDigits(builder, seconds / 60 % 60, 2);
+        builder.append(':');
+        appendDigits(builder, seconds % 60, 2);
+    }
+
+    /**
+     * Appends the value padded with leading zeros to the given number of digits.
+     */
+    private static void appendDigits(StringBuilder builder, long value, int digits) {
+        if (value < 0) {
+            builder.append('-');
+            value = -value;
+        }
+        long limit = 1;
+        for (int i = 1; i < digits; i++) {
+            limit *= 10;
+        }
+        for (; limit > 1 && value < limit; limit /= 10) {
+            builder.append('0');
+        }
+        builder.append(value);
+    }
+}
@@ -17,28 +17,24 @@
 
 package io.github.tommygeenexus.exifinterfaceextended;
 
-import android.media.MediaDataSource;
-import android.media.MediaMetadataRetriever;
-import android.os.Build;
-import android.system.ErrnoException;
-import android.system.Os;
-import android.util.Log;
-
-import androidx.annotation.DoNotInline;
-import androidx.annotation.RequiresApi;
-
 import java.io.Closeable;
-import java.io.FileDescriptor;
+import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
 import java.util.Objects;
 import java.util.zip.CRC32;
 
 class ExifInterfaceExtendedUtils {
 
-    private static final String TAG = "ExifInterfaceUtils";
-
     static final int BUF_SIZE = 8192;
 
     private ExifInterfaceExtendedUtils() {
@@ -75,6 +71,34 @@ class ExifInterfaceExtendedUtils {
         }
     }
 
+    /**
+     * Writes all remaining bytes of the given buffer to the given channel, starting at the given
+     * position. The position of the channel is not changed.
+     */
+    static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Reads bytes from the given channel into the given buffer until it is full, starting at the
+     * given position. The position of the channel is not changed.
+     *
+     * @throws EOFException if the end of the channel is reached first.
+     */
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            position += read;
+        }
+    }
+
     /**
      * Convert given int[] to long[]. If long[] is given, just return it.
      * Return null for other types of input.
@@ -115,20 +139,6 @@ class ExifInterfaceExtendedUtils {
         return (int) crc.getValue();
     }
 
-    static long parseSubSeconds(String subSec) {
-        try {
-            final int len = Math.min(subSec.length(), 3);
-            long sub = Long.parseLong(subSec.substring(0, len));
-            for (int i = len; i < 3; i++) {
-                sub *= 10;
-            }
-            return sub;
-        } catch (NumberFormatException e) {
-            // Ignored
-        }
-        return 0L;
-    }
-
     /**
      * Closes 'closeable', ignoring any checked exceptions. Does nothing if 'closeable' is null.
      */
@@ -144,26 +154,7 @@ class ExifInterfaceExtendedUtils {
     }
 
     /**
-     * Closes a file descriptor that has been duplicated.
-     */
-    static void closeFileDescriptor(FileDescriptor fd) {
-        // Os.dup and Os.close was introduced in API 21 so this method shouldn't be called
-        // in API < 21.
-        if (Build.VERSION.SDK_INT >= 21) {
-            try {
-                Api21Impl.close(fd);
-                // Catching ErrnoException will raise error in API < 21
-            } catch (Exception ex) {
-                Log.e(TAG, "Error closing fd.");
-            }
-        } else {
-            Log.e(TAG, "closeFileDescriptor is called in API < 21, which must be wrong.");
-        }
-    }
-
-    /**
-     * {@link Objects#requireNonNull(Object, String)} requires minSdk
-     * {@link android.os.Build.VERSION_CODES#KITKAT}.
+     * {@link Objects#requireNonNull(Object, String)} requires minSdk 19 on Android.
      */
     static <T> void requireNonNull(T obj, String message) {
         if (obj == null) {
@@ -171,34 +162,58 @@ class ExifInterfaceExtendedUtils {
         }
     }
 
-    @RequiresApi(21)
-    static class Api21Impl {
-        private Api21Impl() {}
-
-        @DoNotInline
-        static FileDescriptor dup(FileDescriptor fileDescriptor) throws ErrnoException {
-            return Os.dup(fileDescriptor);
-        }
-
-        @SuppressWarnings({"UnusedReturnValue", "SameParameterValue"})
-        @DoNotInline
-        static long lseek(FileDescriptor fd, long offset, int whence) throws ErrnoException {
-            return Os.lseek(fd, offset, whence);
+    /**
+     * Uses {@code java.nio.file}, which is only available on Android with API 26, so it must only
+     * be loaded on the JVM. The Android facade has its own implementation.
+     */
+    static class NioFilesImpl {
+        private NioFilesImpl() {}
+
+        /**
+         * Copies the owner, group and POSIX permissions of {@code source} to {@code target}.
+         * Does nothing if the file system has no POSIX permissions. The owner and group are
+         * only changed if the process is allowed to.
+         */
+        static void copyPosixAttributes(File source, File target) throws IOException {
+            final PosixFileAttributeView sourceView = Files.getFileAttributeView(
+                    source.toPath(), PosixFileAttributeView.class);
+            final PosixFileAttributeView targetView = Files.getFileAttributeView(
+                    target.toPath(), PosixFileAttributeView.class);
+            if (sourceView == null || targetView == null) {
+                return;
+            }
+            final PosixFileAttributes attributes = sourceView.readAttributes();
+            try {
+                targetView.setGroup(attributes.group());
+                targetView.setOwner(attributes.owner());
+            } catch (IOException ignored) {
+                // Changing the owner requires privileges, the file keeps the owner of the process
+            }
+            // Changing the owner may clear some permissions, so they are set last
+            targetView.setPermissions(attributes.permissions());
         }
 
-        @DoNotInline
-        static void close(FileDescriptor fd) throws ErrnoException {
-            Os.close(fd);
+        /**
+         * Atomically replaces {@code target} with {@code source}, which must be on the same file
+         * system.
+         */
+        static void move(File source, File target) throws IOException {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
         }
-    }
-
-    @RequiresApi(23)
-    static class Api23Impl {
-        private Api23Impl() {}
 
-        @DoNotInline
-        static void setDataSource(MediaMetadataRetriever retriever, MediaDataSource dataSource) {
-            retriever.setDataSource(dataSource);
+        /**
+         * Flushes the entries of {@code directory} to the storage device, e.g. to make a rename
+         * durable.
+         */
+        static void syncDirectory(File directory) throws IOException {
+            final FileChannel channel =
+                    FileChannel.open(directory.toPath(), StandardOpenOption.READ);
+            try {
+                channel.force(true);
+            } finally {
+                closeQuietly(channel);
+            }
         }
     }
 }
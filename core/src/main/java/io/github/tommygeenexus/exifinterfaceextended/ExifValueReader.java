@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+/**
+ * Reads the value of an entry from the stream the entry is parsed from. One instance is reused for
+ * all entries, it only seeks when the value is actually read.
+ */
+class ExifValueReader implements ExifVisitor.ValueReader {
+
+    private SeekableByteOrderedDataInputStream mInputStream;
+    private ByteOrder mByteOrder;
+    private long mPosition;
+    private int mLength;
+
+    void set(SeekableByteOrderedDataInputStream in, ByteOrder byteOrder, long position,
+            int length) {
+        mInputStream = in;
+        mByteOrder = byteOrder;
+        mPosition = position;
+        mLength = length;
+    }
+
+    @Override
+    public int getLength() {
+        return mLength;
+    }
+
+    @NonNull
+    @Override
+    public ByteOrder getByteOrder() {
+        return mByteOrder;
+    }
+
+    @Override
+    public void read(@NonNull byte[] buffer, int offset) throws IOException {
+        if (mLength == 0) {
+            return;
+        }
+        mInputStream.seek(mPosition);
+        mInputStream.readFully(buffer, offset, mLength);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+/**
+ * A callback for the entries of the EXIF tag groups (IFDs) of an image, see
+ * {@link ExifInterfaceExtendedCore#visitAttributes(java.io.File, ExifVisitor)}.
+ * <p>
+ * The entries are reported while the image is parsed, in the order in which they are stored in
+ * the image, and no {@link ExifInterfaceExtendedCore} attributes are created for them. An
+ * {@link IOException} thrown by the visitor stops the parsing and is thrown by
+ * {@link ExifInterfaceExtendedCore#visitAttributes(java.io.File, ExifVisitor)}.
+ */
+public interface ExifVisitor {
+
+    /** The tag group of the primary image (IFD0). */
+    int IFD_TYPE_PRIMARY = 0;
+    /** The Exif tag group. */
+    int IFD_TYPE_EXIF = 1;
+    /** The GPS tag group. */
+    int IFD_TYPE_GPS = 2;
+    /** The Interoperability tag group. */
+    int IFD_TYPE_INTEROPERABILITY = 3;
+    /** The tag group of the thumbnail (IFD1). */
+    int IFD_TYPE_THUMBNAIL = 4;
+    /** The tag group of a preview image (SubIFD) in RAW images. */
+    int IFD_TYPE_PREVIEW = 5;
+    /** The MakerNote tag group of ORF images. */
+    int IFD_TYPE_ORF_MAKER_NOTE = 6;
+    /** The camera settings tag group in the MakerNote of ORF images. */
+    int IFD_TYPE_ORF_CAMERA_SETTINGS = 7;
+    /** The image processing tag group in the MakerNote of ORF images. */
+    int IFD_TYPE_ORF_IMAGE_PROCESSING = 8;
+    /** The MakerNote tag group of PEF images. */
+    int IFD_TYPE_PEF = 9;
+
+    /**
+     * Called for each entry of a tag group as it is stored, including entries of unknown tags or
+     * with unexpected formats and the pointers to other tag groups. The tag group is the one the
+     * entry was read as, before the primary, preview and thumbnail images are validated by their
+     * sizes.
+     *
+     * @param ifdType the tag group of the entry, one of the {@code IFD_TYPE_*} constants.
+     * @param tagNumber the number of the tag, e.g. 0x0112 for
+     *                  {@link ExifInterfaceExtendedCore#TAG_ORIENTATION}.
+     * @param format the stored data format of the value, e.g. 3 for unsigned short.
+     * @param numberOfComponents the stored number of components of the value.
+     * @param valueOffset the offset of the value from the start of the image data, or -1 if it
+     *                    is unknown, e.g. for the tag groups read from a MakerNote or for an
+     *                    invalid format.
+     * @param valueReader reads the value, only valid during this call. The value is empty if the
+     *                    format or the number of components is invalid.
+     * @throws IOException if reading the value fails.
+     */
+    void onEntry(int ifdType, int tagNumber, int format, int numberOfComponents,
+            long valueOffset, @NonNull ValueReader valueReader) throws IOException;
+
+    /**
+     * Reads the raw bytes of the value of an entry.
+     */
+    interface ValueReader {
+
+        /**
+         * Returns the length of the value in bytes.
+         */
+        int getLength();
+
+        /**
+         * Returns the byte order of the value.
+         */
+        @NonNull
+        ByteOrder getByteOrder();
+
+        /**
+         * Reads the value into the given buffer, which must have room for {@link #getLength()}
+         * bytes from the given offset.
+         *
+         * @throws IOException if the value can't be read completely.
+         */
+        void read(@NonNull byte[] buffer, int offset) throws IOException;
+    }
+}
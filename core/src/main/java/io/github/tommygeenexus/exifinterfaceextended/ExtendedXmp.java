@@ -0,0 +1,235 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The locations of the chunks of ExtendedXMP packets inside a JPEG file, which are reassembled
+ * only when the extended packet is requested.
+ * <p>
+ * XMP which does not fit into a single APP1 segment is split into the standard packet and an
+ * extended packet, which is stored in chunks of further APP1 segments. Each chunk starts with the
+ * GUID of the extended packet, i.e. the hex encoded MD5 digest of the packet, followed by the full
+ * length of the packet and the offset of the chunk in it. The standard packet references the GUID
+ * in its {@code xmpNote:HasExtendedXMP} property. See XMP Specification Part 3, 1.1.3.1.
+ */
+final class ExtendedXmp {
+
+    private static final int GUID_LENGTH = 32;
+    private static final int CHUNK_HEADER_LENGTH = GUID_LENGTH + 4 + 4;
+    private static final byte[] HAS_EXTENDED_XMP =
+            "HasExtendedXMP".getBytes(ExifInterfaceExtendedCore.ASCII);
+    // The GUID starts within a few characters of the property name, e.g. after '="' or '>'.
+    private static final int MAX_GUID_DISTANCE = 4;
+
+    private static final class Chunk {
+        final String mGuid;
+        final long mFullLength;
+        final long mOffsetInPacket;
+        final long mOffset;
+        final int mLength;
+        // The data of the chunk if the image data can't be read again
+        final byte[] mData;
+
+        Chunk(String guid, long fullLength, long offsetInPacket, long offset, int length,
+                byte[] data) {
+            mGuid = guid;
+            mFullLength = fullLength;
+            mOffsetInPacket = offsetInPacket;
+            mOffset = offset;
+            mLength = length;
+            mData = data;
+        }
+    }
+
+    // Chunks in the order in which they are stored in the image file
+    private final List<Chunk> mChunks = new ArrayList<>();
+
+    /**
+     * Adds the chunk stored in the given APP1 segment. Chunks must be added in the order in which
+     * they are stored in the image file.
+     *
+     * @param segment the APP1 segment data
+     * @param identifierLength the length of the ExtendedXMP identifier at the start of the segment
+     * @param segmentOffset the offset of the segment data inside the image file
+     * @param keepData whether to keep the chunk data because the image data can't be read again
+     * @return false if the chunk header is invalid
+     */
+    boolean addChunk(@NonNull byte[] segment, int identifierLength, long segmentOffset,
+            boolean keepData) {
+        final int dataOffset = identifierLength + CHUNK_HEADER_LENGTH;
+        if (segment.length < dataOffset) {
+            return false;
+        }
+        final String guid = new String(segment, identifierLength, GUID_LENGTH,
+                ExifInterfaceExtendedCore.ASCII);
+        final ByteBuffer header = ByteBuffer.wrap(segment, identifierLength + GUID_LENGTH, 8);
+        final long fullLength = header.getInt() & 0xffffffffL;
+        final long offsetInPacket = header.getInt() & 0xffffffffL;
+        final int length = segment.length - dataOffset;
+        final byte[] data = keepData
+                ? Arrays.copyOfRange(segment, dataOffset, segment.length) : null;
+        mChunks.add(new Chunk(guid, fullLength, offsetInPacket, segmentOffset + dataOffset,
+                length, data));
+        return true;
+    }
+
+    /**
+     * Returns the GUID of the extended packet referenced by the given standard XMP packet, or
+     * {@code null} if it does not reference one.
+     */
+    @Nullable
+    static String findGuid(@Nullable byte[] xmp) {
+        if (xmp == null) {
+            return null;
+        }
+        final int index = indexOf(xmp, HAS_EXTENDED_XMP);
+        if (index < 0) {
+            return null;
+        }
+        int start = index + HAS_EXTENDED_XMP.length;
+        final int maxStart = Math.min(start + MAX_GUID_DISTANCE, xmp.length - GUID_LENGTH);
+        while (start <= maxStart && !isHexDigit(xmp[start])) {
+            start++;
+        }
+        if (start > maxStart) {
+            return null;
+        }
+        for (int i = start; i < start + GUID_LENGTH; i++) {
+            if (!isHexDigit(xmp[i])) {
+                return null;
+            }
+        }
+        return new String(xmp, start, GUID_LENGTH, ExifInterfaceExtendedCore.ASCII);
+    }
+
+    /**
+     * Reassembles the extended packet with the given GUID into a buffer of its full length and
+     * validates it against its MD5 digest.
+     *
+     * @param guid the GUID referenced by the standard XMP packet
+     * @param in the image data from its start, or {@code null} if the chunks have been kept
+     * @return the extended packet, or {@code null} if there are no chunks with the GUID.
+     * @throws IOException if an I/O error occurs, the chunks don't cover the packet or the packet
+     *         does not match its digest.
+     */
+    @Nullable
+    ByteBuffer read(@NonNull String guid, @Nullable InputStream in) throws IOException {
+        final List<Chunk> chunks = new ArrayList<>();
+        for (Chunk chunk : mChunks) {
+            if (chunk.mGuid.equalsIgnoreCase(guid)) {
+                chunks.add(chunk);
+            }
+        }
+        if (chunks.isEmpty()) {
+            return null;
+        }
+        // Check that the chunks cover the packet exactly before allocating it.
+        final long fullLength = chunks.get(0).mFullLength;
+        final List<Chunk> packetOrder = new ArrayList<>(chunks);
+        Collections.sort(packetOrder, new Comparator<Chunk>() {
+            @Override
+            public int compare(Chunk a, Chunk b) {
+                return Long.compare(a.mOffsetInPacket, b.mOffsetInPacket);
+            }
+        });
+        long covered = 0;
+        for (Chunk chunk : packetOrder) {
+            if (chunk.mFullLength != fullLength || chunk.mOffsetInPacket != covered) {
+                throw new IOException("ExtendedXMP chunks don't cover the packet");
+            }
+            covered += chunk.mLength;
+        }
+        if (covered != fullLength || fullLength > Integer.MAX_VALUE) {
+            throw new IOException("ExtendedXMP chunks don't cover the packet");
+        }
+
+        // Read the chunks in file order directly into their place in the packet.
+        final byte[] packet = new byte[(int) fullLength];
+        final ByteOrderedDataInputStream source =
+                in != null ? new ByteOrderedDataInputStream(in) : null;
+        for (Chunk chunk : chunks) {
+            if (chunk.mData != null) {
+                System.arraycopy(chunk.mData, 0, packet, (int) chunk.mOffsetInPacket,
+                        chunk.mLength);
+                continue;
+            }
+            if (source == null) {
+                throw new IOException("The image data can't be read again");
+            }
+            final long skip = chunk.mOffset - source.getPosition();
+            if (skip < 0 || skip > Integer.MAX_VALUE) {
+                throw new IOException("Invalid ExtendedXMP chunk offset: " + chunk.mOffset);
+            }
+            source.skipFully((int) skip);
+            source.readFully(packet, (int) chunk.mOffsetInPacket, chunk.mLength);
+        }
+
+        if (!guid.equalsIgnoreCase(toHex(md5(packet)))) {
+            throw new IOException("ExtendedXMP packet does not match its GUID " + guid);
+        }
+        return ByteBuffer.wrap(packet).asReadOnlyBuffer();
+    }
+
+    private static boolean isHexDigit(byte b) {
+        return (b >= '0' && b <= '9') || (b >= 'A' && b <= 'F') || (b >= 'a' && b <= 'f');
+    }
+
+    private static int indexOf(byte[] bytes, byte[] value) {
+        outer:
+        for (int i = 0; i <= bytes.length - value.length; i++) {
+            for (int j = 0; j < value.length; j++) {
+                if (bytes[i + j] != value[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static byte[] md5(byte[] bytes) throws IOException {
+        try {
+            return MessageDigest.getInstance("MD5").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("MD5 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16))
+                    .append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An input stream that reads from a {@link FileChannel} with positional reads only.
+ * <p>
+ * Unlike a {@link java.io.BufferedInputStream}, mark/reset and skip only move the read position,
+ * so seeking back and forth in large files (e.g. RAW images) does not keep the data that was
+ * already read in memory. The position of the channel itself is never changed. The channel is
+ * owned by the caller and is not closed by {@link #close()}.
+ */
+class FileChannelInputStream extends InputStream {
+
+    private final FileChannel mChannel;
+    private final byte[] mBuffer = new byte[ExifInterfaceExtendedUtils.BUF_SIZE];
+
+    // Absolute position in the channel of the first byte in mBuffer.
+    private long mBufferStart;
+    private int mBufferLength;
+    // Absolute position in the channel of the next byte to read.
+    private long mPosition;
+    private long mMarkPosition;
+
+    /**
+     * Creates a stream which starts reading at the current position of the given channel.
+     */
+    FileChannelInputStream(FileChannel channel) throws IOException {
+        mChannel = channel;
+        mPosition = channel.position();
+        mMarkPosition = mPosition;
+        mBufferStart = mPosition;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fillBuffer()) {
+            return -1;
+        }
+        return mBuffer[(int) (mPosition++ - mBufferStart)] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int totalRead = 0;
+        while (totalRead < len) {
+            int remaining = len - totalRead;
+            if (remaining >= mBuffer.length && !isBuffered(mPosition)) {
+                // Large reads bypass the buffer to avoid copying the data twice.
+                int bytesRead = readAt(mPosition, ByteBuffer.wrap(b, off + totalRead, remaining));
+                if (bytesRead <= 0) {
+                    break;
+                }
+                mPosition += bytesRead;
+                totalRead += bytesRead;
+                continue;
+            }
+            if (!fillBuffer()) {
+                break;
+            }
+            int start = (int) (mPosition - mBufferStart);
+            int bytesToCopy = Math.min(remaining, mBufferLength - start);
+            System.arraycopy(mBuffer, start, b, off + totalRead, bytesToCopy);
+            mPosition += bytesToCopy;
+            totalRead += bytesToCopy;
+        }
+        return totalRead == 0 ? -1 : totalRead;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        long skipped = Math.max(0, Math.min(n, mChannel.size() - mPosition));
+        mPosition += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, mChannel.size() - mPosition));
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        // The read limit is irrelevant since no data needs to be retained to reset.
+        mMarkPosition = mPosition;
+    }
+
+    @Override
+    public synchronized void reset() {
+        mPosition = mMarkPosition;
+    }
+
+    @Override
+    public void close() {
+        // The channel is owned by the caller.
+    }
+
+    private boolean isBuffered(long position) {
+        return position >= mBufferStart && position < mBufferStart + mBufferLength;
+    }
+
+    /**
+     * Makes sure that the byte at the current position is in the buffer. Returns false if the
+     * end of the channel has been reached.
+     */
+    private boolean fillBuffer() throws IOException {
+        if (isBuffered(mPosition)) {
+            return true;
+        }
+        mBufferStart = mPosition;
+        mBufferLength = Math.max(0, readAt(mPosition, ByteBuffer.wrap(mBuffer)));
+        return mBufferLength > 0;
+    }
+
+    /**
+     * Reads from the channel at the given position until the buffer is full or the end of the
+     * channel is reached. Returns the number of bytes read or -1 if nothing could be read.
+     */
+    private int readAt(long position, ByteBuffer buffer) throws IOException {
+        int totalRead = 0;
+        while (buffer.hasRemaining()) {
+            int bytesRead = mChannel.read(buffer, position + totalRead);
+            if (bytesRead < 0) {
+                break;
+            }
+            totalRead += bytesRead;
+        }
+        return totalRead == 0 ? -1 : totalRead;
+    }
+}
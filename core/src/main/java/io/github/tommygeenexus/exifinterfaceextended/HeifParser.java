@@ -0,0 +1,450 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Locates the Exif and XMP items and the size and rotation of the primary image in a HEIF (HEIC
+ * or AVIF) file by parsing the boxes of the ISO base media file format.
+ * <p>
+ * Only the {@code meta} box and the boxes in it which are needed are read, everything else,
+ * including the image data, is skipped by seeking. See ISO/IEC 14496-12 for the box structure
+ * and ISO/IEC 23008-12 for the HEIF items and properties.
+ */
+class HeifParser {
+
+    private static final String TAG = "HeifParser";
+    private static final boolean DEBUG = Log.isLoggable(TAG, Log.DEBUG);
+
+    private static final int BOX_TYPE_META = 0x6d657461; // "meta"
+    private static final int BOX_TYPE_PITM = 0x7069746d; // "pitm"
+    private static final int BOX_TYPE_IINF = 0x69696e66; // "iinf"
+    private static final int BOX_TYPE_INFE = 0x696e6665; // "infe"
+    private static final int BOX_TYPE_ILOC = 0x696c6f63; // "iloc"
+    private static final int BOX_TYPE_IDAT = 0x69646174; // "idat"
+    private static final int BOX_TYPE_IPRP = 0x69707270; // "iprp"
+    private static final int BOX_TYPE_IPCO = 0x6970636f; // "ipco"
+    private static final int BOX_TYPE_IPMA = 0x69706d61; // "ipma"
+    private static final int BOX_TYPE_ISPE = 0x69737065; // "ispe"
+    private static final int BOX_TYPE_IROT = 0x69726f74; // "irot"
+    private static final int ITEM_TYPE_EXIF = 0x45786966; // "Exif"
+    private static final int ITEM_TYPE_MIME = 0x6d696d65; // "mime"
+    private static final String CONTENT_TYPE_XMP = "application/rdf+xml";
+
+    private static final int CONSTRUCTION_METHOD_FILE = 0;
+    private static final int CONSTRUCTION_METHOD_IDAT = 1;
+    private static final int BOX_HEADER_SIZE = 8;
+    private static final int FULL_BOX_HEADER_SIZE = 12;
+
+    private final SeekableByteOrderedDataInputStream mInputStream;
+
+    private int mPrimaryItemId = -1;
+    private int mExifItemId = -1;
+    private int mXmpItemId = -1;
+    private long mIdatOffset = -1;
+    // Item ID to {construction method, offset, length} of items with a single extent.
+    private final Map<Integer, long[]> mItemLocations = new HashMap<>();
+    // The properties in ipco, by index - 1. Each is {box type, values...}.
+    private final List<int[]> mProperties = new ArrayList<>();
+    // Item ID to the indexes of its properties.
+    private final Map<Integer, int[]> mItemProperties = new HashMap<>();
+
+    private long mExifOffset = -1;
+    private int mExifLength;
+    private long mXmpOffset = -1;
+    private int mXmpLength;
+    private int mImageWidth;
+    private int mImageHeight;
+    private int mRotationDegrees;
+
+    HeifParser(SeekableByteOrderedDataInputStream in) {
+        mInputStream = in;
+    }
+
+    /**
+     * Parses the file from its start. The stream is left at an unspecified position.
+     *
+     * @throws IOException if the file has no meta box or its boxes are malformed.
+     */
+    void parse() throws IOException {
+        mInputStream.setByteOrder(ByteOrder.BIG_ENDIAN);
+        long position = 0;
+        while (true) {
+            mInputStream.seek(position);
+            final long[] header = readBoxHeader(position, Long.MAX_VALUE);
+            if (header == null) {
+                throw new IOException("Missing meta box");
+            }
+            final long end = header[1] < 0 ? Long.MAX_VALUE : position + header[1];
+            if (header[0] == BOX_TYPE_META) {
+                // The meta box is a full box.
+                mInputStream.skipFully(4);
+                parseMetaBox(end);
+                break;
+            }
+            if (end == Long.MAX_VALUE) {
+                throw new IOException("Missing meta box");
+            }
+            position = end;
+        }
+        resolveItems();
+    }
+
+    /**
+     * Returns the offset of the TIFF header of the Exif item, or -1 if there is none.
+     */
+    long getExifOffset() {
+        return mExifOffset;
+    }
+
+    int getExifLength() {
+        return mExifLength;
+    }
+
+    /**
+     * Returns the offset of the XMP item, or -1 if there is none.
+     */
+    long getXmpOffset() {
+        return mXmpOffset;
+    }
+
+    int getXmpLength() {
+        return mXmpLength;
+    }
+
+    /**
+     * Returns the width of the primary image, or 0 if it is unknown.
+     */
+    int getImageWidth() {
+        return mImageWidth;
+    }
+
+    /**
+     * Returns the height of the primary image, or 0 if it is unknown.
+     */
+    int getImageHeight() {
+        return mImageHeight;
+    }
+
+    /**
+     * Returns the clockwise rotation of the primary image in degrees.
+     */
+    int getRotationDegrees() {
+        return mRotationDegrees;
+    }
+
+    /**
+     * Reads a box header at the current position, which is the given position. Returns
+     * {box type, box size} with a size of -1 if the box extends to the end of the file, or null if
+     * the end of the file or the given end has been reached.
+     */
+    private long[] readBoxHeader(long position, long end) throws IOException {
+        if (end - position < BOX_HEADER_SIZE) {
+            return null;
+        }
+        final long size;
+        final int type;
+        try {
+            size = mInputStream.readUnsignedInt();
+            type = mInputStream.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (size == 1) {
+            final long largeSize = mInputStream.readLong();
+            if (largeSize < BOX_HEADER_SIZE + 8) {
+                throw new IOException("Invalid box size: " + largeSize);
+            }
+            return new long[] {type, largeSize};
+        }
+        if (size == 0) {
+            return new long[] {type, end == Long.MAX_VALUE ? -1 : end - position};
+        }
+        if (size < BOX_HEADER_SIZE) {
+            throw new IOException("Invalid box size: " + size);
+        }
+        return new long[] {type, size};
+    }
+
+    private void parseMetaBox(long end) throws IOException {
+        long position = mInputStream.getPosition();
+        long[] header;
+        while ((header = readBoxHeader(position, end)) != null) {
+            final long boxEnd = header[1] < 0 ? end : position + header[1];
+            switch ((int) header[0]) {
+                case BOX_TYPE_PITM:
+                    parsePrimaryItemBox();
+                    break;
+                case BOX_TYPE_IINF:
+                    parseItemInfoBox(boxEnd);
+                    break;
+                case BOX_TYPE_ILOC:
+                    parseItemLocationBox();
+                    break;
+                case BOX_TYPE_IDAT:
+                    mIdatOffset = mInputStream.getPosition();
+                    break;
+                case BOX_TYPE_IPRP:
+                    parseItemPropertiesBox(boxEnd);
+                    break;
+                default:
+                    break;
+            }
+            if (boxEnd >= end) {
+                break;
+            }
+            position = boxEnd;
+            mInputStream.seek(position);
+        }
+    }
+
+    private void parsePrimaryItemBox() throws IOException {
+        final int version = mInputStream.readInt() >>> 24;
+        mPrimaryItemId = version == 0 ? mInputStream.readUnsignedShort() : mInputStream.readInt();
+    }
+
+    private void parseItemInfoBox(long end) throws IOException {
+        final int version = mInputStream.readInt() >>> 24;
+        // Skip the entry count, the entries are read until the end of the box.
+        mInputStream.skipFully(version == 0 ? 2 : 4);
+        long position = mInputStream.getPosition();
+        long[] header;
+        while ((header = readBoxHeader(position, end)) != null) {
+            final long boxEnd = header[1] < 0 ? end : position + header[1];
+            if (header[0] == BOX_TYPE_INFE) {
+                parseItemInfoEntry(boxEnd);
+            }
+            if (boxEnd >= end) {
+                break;
+            }
+            position = boxEnd;
+            mInputStream.seek(position);
+        }
+    }
+
+    private void parseItemInfoEntry(long end) throws IOException {
+        final int version = mInputStream.readInt() >>> 24;
+        if (version < 2) {
+            // Item types are only defined from version 2.
+            return;
+        }
+        final int itemId = version == 2 ? mInputStream.readUnsignedShort() : mInputStream.readInt();
+        // Skip the item protection index.
+        mInputStream.skipFully(2);
+        final int itemType = mInputStream.readInt();
+        if (itemType == ITEM_TYPE_EXIF) {
+            if (mExifItemId == -1) {
+                mExifItemId = itemId;
+            }
+        } else if (itemType == ITEM_TYPE_MIME) {
+            // Skip the item name, the content type follows it.
+            readNullTerminatedString(end);
+            if (CONTENT_TYPE_XMP.equals(readNullTerminatedString(end)) && mXmpItemId == -1) {
+                mXmpItemId = itemId;
+            }
+        }
+    }
+
+    private void parseItemLocationBox() throws IOException {
+        final int version = mInputStream.readInt() >>> 24;
+        final int sizes = mInputStream.readUnsignedShort();
+        final int offsetSize = (sizes >> 12) & 0xf;
+        final int lengthSize = (sizes >> 8) & 0xf;
+        final int baseOffsetSize = (sizes >> 4) & 0xf;
+        final int indexSize = version == 1 || version == 2 ? sizes & 0xf : 0;
+        final long itemCount = version < 2
+                ? mInputStream.readUnsignedShort() : mInputStream.readUnsignedInt();
+        for (long i = 0; i < itemCount; ++i) {
+            final int itemId = version < 2
+                    ? mInputStream.readUnsignedShort() : mInputStream.readInt();
+            int constructionMethod = CONSTRUCTION_METHOD_FILE;
+            if (version == 1 || version == 2) {
+                constructionMethod = mInputStream.readUnsignedShort() & 0xf;
+            }
+            // Skip the data reference index.
+            mInputStream.skipFully(2);
+            final long baseOffset = readSizedInt(baseOffsetSize);
+            final int extentCount = mInputStream.readUnsignedShort();
+            long offset = 0;
+            long length = 0;
+            for (int j = 0; j < extentCount; ++j) {
+                readSizedInt(indexSize);
+                offset = readSizedInt(offsetSize);
+                length = readSizedInt(lengthSize);
+            }
+            if (extentCount == 1) {
+                mItemLocations.put(itemId,
+                        new long[] {constructionMethod, baseOffset + offset, length});
+            } else if (DEBUG) {
+                Log.d(TAG, "Skip item " + itemId + " with " + extentCount + " extents");
+            }
+        }
+    }
+
+    private void parseItemPropertiesBox(long end) throws IOException {
+        long position = mInputStream.getPosition();
+        long[] header;
+        while ((header = readBoxHeader(position, end)) != null) {
+            final long boxEnd = header[1] < 0 ? end : position + header[1];
+            if (header[0] == BOX_TYPE_IPCO) {
+                parseItemPropertyContainerBox(boxEnd);
+            } else if (header[0] == BOX_TYPE_IPMA) {
+                parseItemPropertyAssociationBox();
+            }
+            if (boxEnd >= end) {
+                break;
+            }
+            position = boxEnd;
+            mInputStream.seek(position);
+        }
+    }
+
+    private void parseItemPropertyContainerBox(long end) throws IOException {
+        long position = mInputStream.getPosition();
+        long[] header;
+        while ((header = readBoxHeader(position, end)) != null) {
+            final long boxEnd = header[1] < 0 ? end : position + header[1];
+            final int type = (int) header[0];
+            if (type == BOX_TYPE_ISPE && boxEnd - position >= FULL_BOX_HEADER_SIZE + 8) {
+                // Skip the version and flags.
+                mInputStream.skipFully(4);
+                mProperties.add(new int[] {type, mInputStream.readInt(), mInputStream.readInt()});
+            } else if (type == BOX_TYPE_IROT && boxEnd - position >= BOX_HEADER_SIZE + 1) {
+                mProperties.add(new int[] {type, mInputStream.readUnsignedByte() & 0x3});
+            } else {
+                mProperties.add(new int[] {type});
+            }
+            if (boxEnd >= end) {
+                break;
+            }
+            position = boxEnd;
+            mInputStream.seek(position);
+        }
+    }
+
+    private void parseItemPropertyAssociationBox() throws IOException {
+        final int versionAndFlags = mInputStream.readInt();
+        final int version = versionAndFlags >>> 24;
+        final boolean largeIndexes = (versionAndFlags & 1) != 0;
+        final long entryCount = mInputStream.readUnsignedInt();
+        for (long i = 0; i < entryCount; ++i) {
+            final int itemId = version < 1 ? mInputStream.readUnsignedShort() : mInputStream.readInt();
+            final int associationCount = mInputStream.readUnsignedByte();
+            final int[] indexes = new int[associationCount];
+            for (int j = 0; j < associationCount; ++j) {
+                // The highest bit marks essential properties.
+                indexes[j] = largeIndexes
+                        ? mInputStream.readUnsignedShort() & 0x7fff
+                        : mInputStream.readUnsignedByte() & 0x7f;
+            }
+            mItemProperties.put(itemId, indexes);
+        }
+    }
+
+    private void resolveItems() {
+        long[] location = getItemLocation(mExifItemId);
+        if (location != null && location[1] > 4) {
+            try {
+                // The Exif item starts with the offset to the TIFF header after this field,
+                // usually to skip the "Exif\0\0" identifier. See ISO/IEC 23008-12 Annex A.2.1.
+                mInputStream.seek(location[0]);
+                final long tiffHeaderOffset = mInputStream.readUnsignedInt();
+                if (tiffHeaderOffset < location[1] - 4) {
+                    mExifOffset = location[0] + 4 + tiffHeaderOffset;
+                    mExifLength = (int) (location[1] - 4 - tiffHeaderOffset);
+                }
+            } catch (IOException e) {
+                if (DEBUG) {
+                    Log.d(TAG, "Failed to read the Exif item header", e);
+                }
+            }
+        }
+        location = getItemLocation(mXmpItemId);
+        if (location != null) {
+            mXmpOffset = location[0];
+            mXmpLength = (int) location[1];
+        }
+        final int[] indexes = mItemProperties.get(mPrimaryItemId);
+        if (indexes != null) {
+            for (int index : indexes) {
+                if (index < 1 || index > mProperties.size()) {
+                    continue;
+                }
+                final int[] property = mProperties.get(index - 1);
+                if (property[0] == BOX_TYPE_ISPE && property.length == 3) {
+                    mImageWidth = property[1];
+                    mImageHeight = property[2];
+                } else if (property[0] == BOX_TYPE_IROT && property.length == 2) {
+                    // irot rotates anti-clockwise.
+                    mRotationDegrees = (4 - property[1]) % 4 * 90;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns {file offset, length} of the given item, or null if it can't be located.
+     */
+    private long[] getItemLocation(int itemId) {
+        final long[] location = mItemLocations.get(itemId);
+        if (location == null || location[2] <= 0 || location[2] > Integer.MAX_VALUE) {
+            return null;
+        }
+        if (location[0] == CONSTRUCTION_METHOD_FILE) {
+            return new long[] {location[1], location[2]};
+        }
+        if (location[0] == CONSTRUCTION_METHOD_IDAT && mIdatOffset >= 0) {
+            return new long[] {mIdatOffset + location[1], location[2]};
+        }
+        return null;
+    }
+
+    private long readSizedInt(int size) throws IOException {
+        switch (size) {
+            case 0:
+                return 0;
+            case 4:
+                return mInputStream.readUnsignedInt();
+            case 8:
+                return mInputStream.readLong();
+            default:
+                throw new IOException("Invalid field size: " + size);
+        }
+    }
+
+    private String readNullTerminatedString(long end) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        while (mInputStream.getPosition() < end) {
+            final int c = mInputStream.readUnsignedByte();
+            if (c == 0) {
+                break;
+            }
+            builder.append((char) c);
+        }
+        return new String(builder.toString().getBytes(StandardCharsets.ISO_8859_1),
+                StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * The location of an embedded ICC profile inside the image file, which is read only when the
+ * profile is requested.
+ * <p>
+ * JPEG splits large profiles over several APP2 segments which are numbered in sequence, PNG
+ * compresses the profile with zlib, and WebP stores it as is.
+ */
+final class IccProfile {
+
+    private static final class Segment {
+        final int mSequenceNumber;
+        final long mOffset;
+        final int mLength;
+        // The data of the segment if the image data can't be read again
+        final byte[] mData;
+
+        Segment(int sequenceNumber, long offset, int length, byte[] data) {
+            mSequenceNumber = sequenceNumber;
+            mOffset = offset;
+            mLength = length;
+            mData = data;
+        }
+    }
+
+    private final boolean mIsCompressed;
+    // Segments in the order in which they are stored in the image file
+    private final List<Segment> mSegments = new ArrayList<>();
+
+    /**
+     * @param isCompressed whether the profile is compressed with zlib
+     */
+    IccProfile(boolean isCompressed) {
+        mIsCompressed = isCompressed;
+    }
+
+    /**
+     * Adds a segment of the profile. Segments must be added in the order in which they are stored
+     * in the image file.
+     *
+     * @param sequenceNumber the position of the segment in the profile
+     * @param offset the offset of the segment data inside the image file
+     * @param length the length of the segment data
+     * @param data the segment data if the image data can't be read again, or {@code null}
+     */
+    void addSegment(int sequenceNumber, long offset, int length, @Nullable byte[] data) {
+        mSegments.add(new Segment(sequenceNumber, offset, length, data));
+    }
+
+    /**
+     * Returns the offset and length of the profile inside the image file, or {@code null} if it
+     * is split over several segments. The range of a compressed profile is the range of the
+     * compressed data.
+     */
+    @Nullable
+    long[] getRange() {
+        if (mSegments.size() != 1) {
+            return null;
+        }
+        final Segment segment = mSegments.get(0);
+        return new long[] { segment.mOffset, segment.mLength };
+    }
+
+    /**
+     * Returns whether the profile can be read without reading the image data again.
+     */
+    boolean isInMemory() {
+        for (Segment segment : mSegments) {
+            if (segment.mData == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the profile, reassembling its segments in sequence order and decompressing it.
+     *
+     * @param in the image data from its start, or {@code null} if {@link #isInMemory()}
+     * @throws IOException if an I/O error occurs or the compressed data is corrupted.
+     */
+    @NonNull
+    byte[] read(@Nullable InputStream in) throws IOException {
+        final ByteOrderedDataInputStream source =
+                in != null ? new ByteOrderedDataInputStream(in) : null;
+        if (mIsCompressed) {
+            // Only a single segment is possible.
+            final Segment segment = mSegments.get(0);
+            if (segment.mData != null) {
+                return inflate(new ByteArrayInputStream(segment.mData), segment.mLength);
+            }
+            seek(source, segment.mOffset);
+            return inflate(source, segment.mLength);
+        }
+        final byte[][] data = new byte[mSegments.size()][];
+        int totalLength = 0;
+        for (int i = 0; i < data.length; i++) {
+            final Segment segment = mSegments.get(i);
+            if (segment.mData != null) {
+                data[i] = segment.mData;
+            } else {
+                seek(source, segment.mOffset);
+                data[i] = new byte[segment.mLength];
+                source.readFully(data[i]);
+            }
+            totalLength += segment.mLength;
+        }
+        if (data.length == 1) {
+            return data[0];
+        }
+        final List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < data.length; i++) {
+            order.add(i);
+        }
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Integer.compare(mSegments.get(a).mSequenceNumber,
+                        mSegments.get(b).mSequenceNumber);
+            }
+        });
+        final byte[] profile = new byte[totalLength];
+        int position = 0;
+        for (int i : order) {
+            System.arraycopy(data[i], 0, profile, position, data[i].length);
+            position += data[i].length;
+        }
+        return profile;
+    }
+
+    private static void seek(ByteOrderedDataInputStream source, long offset) throws IOException {
+        if (source == null) {
+            throw new IOException("The image data can't be read again");
+        }
+        final long skip = offset - source.getPosition();
+        if (skip < 0 || skip > Integer.MAX_VALUE) {
+            throw new IOException("Invalid ICC profile offset: " + offset);
+        }
+        source.skipFully((int) skip);
+    }
+
+    // Inflates the zlib data while it is read, without keeping the compressed data in memory.
+    private static byte[] inflate(InputStream in, int length) throws IOException {
+        final Inflater inflater = new Inflater();
+        try {
+            final byte[] input = new byte[Math.min(length, ExifInterfaceExtendedUtils.BUF_SIZE)];
+            final byte[] output = new byte[ExifInterfaceExtendedUtils.BUF_SIZE];
+            final ByteArrayOutputStream profile = new ByteArrayOutputStream(length);
+            int remaining = length;
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    if (remaining == 0) {
+                        throw new EOFException("Truncated compressed ICC profile");
+                    }
+                    final int bytesRead = in.read(input, 0, Math.min(input.length, remaining));
+                    if (bytesRead < 0) {
+                        throw new EOFException("Reached EOF while reading the ICC profile");
+                    }
+                    remaining -= bytesRead;
+                    inflater.setInput(input, 0, bytesRead);
+                }
+                final int inflated = inflater.inflate(output);
+                if (inflated == 0 && inflater.needsDictionary()) {
+                    throw new IOException("Invalid compressed ICC profile");
+                }
+                profile.write(output, 0, inflated);
+            }
+            return profile.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid compressed ICC profile", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+/**
+ * Detects an image format by the signature at the start of the file and reads its attributes.
+ * Handlers are registered with an {@link ImageFormatRegistry}.
+ */
+interface ImageFormatHandler {
+
+    /**
+     * Returns true if the first bytes of a file have the signature of this format.
+     *
+     * @param signature the first bytes of the file, padded with zeros if the file is shorter.
+     */
+    boolean matches(@NonNull byte[] signature);
+
+    /**
+     * Reads the attributes of the image into {@code exif}.
+     *
+     * @param in the stream positioned at the start of the file. This is a
+     *           {@link SeekableByteOrderedDataInputStream} if the format is read with seeking.
+     */
+    void readAttributes(@NonNull ExifInterfaceExtendedCore exif,
+            @NonNull ByteOrderedDataInputStream in) throws IOException;
+}
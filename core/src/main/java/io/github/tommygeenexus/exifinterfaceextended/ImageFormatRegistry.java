@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The image formats whose attributes can be read, indexed by the first byte of their signature.
+ * Detecting the format of a file therefore only compares it with the formats it can possibly be,
+ * instead of with every known format.
+ * <p>
+ * Formats are registered once and only read afterwards, so a registry may be shared by multiple
+ * threads.
+ */
+final class ImageFormatRegistry {
+
+    private static final class Entry {
+        final int mImageType;
+        final ImageFormatHandler mHandler;
+
+        Entry(int imageType, ImageFormatHandler handler) {
+            mImageType = imageType;
+            mHandler = handler;
+        }
+    }
+
+    // The entries of each first byte, null if there are none
+    private final List<List<Entry>> mEntriesByFirstByte =
+            new ArrayList<>(Collections.<List<Entry>>nCopies(256, null));
+    private final List<Entry> mEntriesForAnyFirstByte = new ArrayList<>();
+    private final Map<Integer, ImageFormatHandler> mHandlersByImageType = new HashMap<>();
+
+    /**
+     * Registers the handler of an image type.
+     * <p>
+     * Formats are compared in the order of their registration. Formats whose signature starts with
+     * one of a few bytes should pass them as {@code firstBytes}. If none are passed, the format is
+     * compared with every file after the formats whose first byte matches, e.g. for container
+     * formats which start with a box size.
+     *
+     * @param imageType the image type, one of the {@code IMAGE_TYPE_*} constants.
+     * @param handler the handler which detects and reads the image type.
+     * @param firstBytes the possible first bytes of the signature.
+     */
+    void register(int imageType, @NonNull ImageFormatHandler handler, @NonNull int... firstBytes) {
+        if (mHandlersByImageType.containsKey(imageType)) {
+            throw new IllegalArgumentException(
+                    "Image type " + imageType + " is already registered");
+        }
+        final Entry entry = new Entry(imageType, handler);
+        if (firstBytes.length == 0) {
+            mEntriesForAnyFirstByte.add(entry);
+        }
+        for (int firstByte : firstBytes) {
+            final int index = firstByte & 0xff;
+            List<Entry> entries = mEntriesByFirstByte.get(index);
+            if (entries == null) {
+                entries = new ArrayList<>();
+                mEntriesByFirstByte.set(index, entries);
+            }
+            entries.add(entry);
+        }
+        mHandlersByImageType.put(imageType, handler);
+    }
+
+    /**
+     * Returns the image type of the first registered format whose signature the given bytes have,
+     * or {@link ExifInterfaceExtendedCore#IMAGE_TYPE_UNKNOWN}.
+     *
+     * @param signature the first bytes of the file, padded with zeros if the file is shorter.
+     */
+    int detect(@NonNull byte[] signature) {
+        if (signature.length == 0) {
+            return ExifInterfaceExtendedCore.IMAGE_TYPE_UNKNOWN;
+        }
+        final List<Entry> entries = mEntriesByFirstByte.get(signature[0] & 0xff);
+        if (entries != null) {
+            for (int i = 0; i < entries.size(); i++) {
+                if (entries.get(i).mHandler.matches(signature)) {
+                    return entries.get(i).mImageType;
+                }
+            }
+        }
+        for (int i = 0; i < mEntriesForAnyFirstByte.size(); i++) {
+            if (mEntriesForAnyFirstByte.get(i).mHandler.matches(signature)) {
+                return mEntriesForAnyFirstByte.get(i).mImageType;
+            }
+        }
+        return ExifInterfaceExtendedCore.IMAGE_TYPE_UNKNOWN;
+    }
+
+    /**
+     * Returns the handler of the image type or null if it is not registered.
+     */
+    @Nullable
+    ImageFormatHandler getHandler(int imageType) {
+        return mHandlersByImageType.get(imageType);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The format, size and orientation of an image, read from its headers by
+ * {@link ExifInterfaceExtendedCore#probe(java.io.File)}.
+ */
+public final class ImageInfo {
+
+    private final String mMimeType;
+    private final int mWidth;
+    private final int mHeight;
+    private final int mOrientation;
+
+    ImageInfo(@NonNull String mimeType, int width, int height, int orientation) {
+        mMimeType = mimeType;
+        mWidth = width;
+        mHeight = height;
+        mOrientation = orientation;
+    }
+
+    /**
+     * Returns the MIME type of the image, e.g. {@code image/jpeg}.
+     */
+    @NonNull
+    public String getMimeType() {
+        return mMimeType;
+    }
+
+    /**
+     * Returns the width of the image in pixels, or 0 if it is not stored in the headers which are
+     * read.
+     */
+    public int getWidth() {
+        return mWidth;
+    }
+
+    /**
+     * Returns the height of the image in pixels, or 0 if it is not stored in the headers which are
+     * read.
+     */
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * Returns the orientation of the image, one of the {@code ORIENTATION_*} constants of
+     * {@link ExifInterfaceExtendedCore}, or {@link ExifInterfaceExtendedCore#ORIENTATION_UNDEFINED}
+     * if the image has none.
+     */
+    public int getOrientation() {
+        return mOrientation;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "ImageInfo{mimeType=" + mMimeType + ", width=" + mWidth + ", height=" + mHeight
+                + ", orientation=" + mOrientation + "}";
+    }
+}
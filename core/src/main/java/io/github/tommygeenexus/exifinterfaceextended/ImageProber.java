@@ -0,0 +1,427 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteOrder;
+
+/**
+ * Reads the size and orientation of an image from the first header which contains them, see
+ * {@link ExifInterfaceExtendedCore#probe(InputStream)}. No attributes are created and data after
+ * the header is not read, except for the Exif orientation which some formats store further on.
+ */
+final class ImageProber {
+
+    // See JPEG File Interchange Format Specification, Annex B
+    private static final int MARKER = 0xff;
+    private static final int MARKER_TEM = 0x01;
+    private static final int MARKER_SOF0 = 0xc0;
+    private static final int MARKER_SOF15 = 0xcf;
+    private static final int MARKER_DHT = 0xc4;
+    private static final int MARKER_JPG = 0xc8;
+    private static final int MARKER_DAC = 0xcc;
+    private static final int MARKER_RST0 = 0xd0;
+    private static final int MARKER_RST7 = 0xd7;
+    private static final int MARKER_EOI = 0xd9;
+    private static final int MARKER_SOS = 0xda;
+    private static final int MARKER_APP1 = 0xe1;
+
+    // Chunk types as big endian integers
+    private static final int PNG_CHUNK_TYPE_IHDR = 0x49484452; // "IHDR"
+    private static final int PNG_CHUNK_TYPE_IDAT = 0x49444154; // "IDAT"
+    private static final int PNG_CHUNK_TYPE_IEND = 0x49454e44; // "IEND"
+    private static final int PNG_CHUNK_TYPE_EXIF = 0x65584966; // "eXIf"
+    private static final int WEBP_CHUNK_TYPE_VP8 = 0x56503820; // "VP8 "
+    private static final int WEBP_CHUNK_TYPE_VP8L = 0x5650384c; // "VP8L"
+    private static final int WEBP_CHUNK_TYPE_VP8X = 0x56503858; // "VP8X"
+    private static final int WEBP_CHUNK_TYPE_EXIF = 0x45584946; // "EXIF"
+    private static final int WEBP_VP8X_FLAG_EXIF = 1 << 3;
+    private static final int WEBP_VP8L_SIGNATURE = 0x2f;
+    private static final int WEBP_VP8_START_CODE = 0x9d012a;
+
+    // See http://fileformats.archiveteam.org/wiki/Fujifilm_RAF
+    private static final int RAF_OFFSET_TO_JPEG_IMAGE_OFFSET = 84;
+
+    private static final int TIFF_HEADER_LENGTH = 8;
+    private static final int TIFF_ENTRY_LENGTH = 12;
+    private static final int TAG_NEW_SUBFILE_TYPE = 0x00fe;
+    private static final int TAG_IMAGE_WIDTH = 0x0100;
+    private static final int TAG_IMAGE_LENGTH = 0x0101;
+    private static final int TAG_ORIENTATION = 0x0112;
+    private static final int TAG_DNG_VERSION = 0xc612;
+
+    private final ByteOrderedDataInputStream mInputStream;
+    private int mWidth;
+    private int mHeight;
+    private int mOrientation = ExifInterfaceExtendedCore.ORIENTATION_UNDEFINED;
+    private boolean mIsTiff;
+    private boolean mIsDng;
+
+    private ImageProber(ByteOrderedDataInputStream in) {
+        mInputStream = in;
+    }
+
+    /**
+     * Probes the image of the given type, see {@link ExifInterfaceExtendedCore#probe(InputStream)}.
+     *
+     * @param in the stream positioned at the start of the image. It must support mark/reset for
+     *           HEIF images.
+     * @param imageType the type detected by the signature of the image.
+     * @return the image info, or null if the image is not supported.
+     */
+    @Nullable
+    static ImageInfo probe(InputStream in, int imageType) throws IOException {
+        final String mimeType;
+        final ImageProber prober;
+        switch (imageType) {
+            case ExifInterfaceExtendedCore.IMAGE_TYPE_JPEG:
+                mimeType = "image/jpeg";
+                prober = new ImageProber(new ByteOrderedDataInputStream(in));
+                prober.probeJpeg();
+                break;
+            case ExifInterfaceExtendedCore.IMAGE_TYPE_PNG:
+                mimeType = "image/png";
+                prober = new ImageProber(new ByteOrderedDataInputStream(in));
+                prober.probePng();
+                break;
+            case ExifInterfaceExtendedCore.IMAGE_TYPE_WEBP:
+                mimeType = "image/webp";
+                prober = new ImageProber(new ByteOrderedDataInputStream(in));
+                prober.probeWebp();
+                break;
+            case ExifInterfaceExtendedCore.IMAGE_TYPE_HEIC:
+            case ExifInterfaceExtendedCore.IMAGE_TYPE_AVIF:
+                mimeType = imageType == ExifInterfaceExtendedCore.IMAGE_TYPE_HEIC
+                        ? "image/heic" : "image/avif";
+                prober = new ImageProber(new SeekableByteOrderedDataInputStream(in));
+                prober.probeHeif();
+                break;
+            case ExifInterfaceExtendedCore.IMAGE_TYPE_RAF:
+                mimeType = "image/x-fuji-raf";
+                prober = new ImageProber(new ByteOrderedDataInputStream(in));
+                prober.probeRaf();
+                break;
+            case ExifInterfaceExtendedCore.IMAGE_TYPE_ORF:
+                mimeType = "image/x-olympus-orf";
+                prober = new ImageProber(new ByteOrderedDataInputStream(in));
+                prober.readTiffIfd0(Long.MAX_VALUE);
+                break;
+            case ExifInterfaceExtendedCore.IMAGE_TYPE_RW2:
+                mimeType = "image/x-panasonic-rw2";
+                prober = new ImageProber(new ByteOrderedDataInputStream(in));
+                prober.readTiffIfd0(Long.MAX_VALUE);
+                break;
+            default:
+                // Other RAW formats are based on TIFF, but can only be told apart by their tags.
+                prober = new ImageProber(new ByteOrderedDataInputStream(in));
+                prober.readTiffIfd0(Long.MAX_VALUE);
+                if (!prober.mIsTiff) {
+                    return null;
+                }
+                mimeType = prober.mIsDng ? "image/x-adobe-dng" : "image/tiff";
+                break;
+        }
+        return new ImageInfo(mimeType, prober.mWidth, prober.mHeight, prober.mOrientation);
+    }
+
+    /**
+     * Reads the markers up to the first start of frame, which contains the size of the image.
+     * The Exif APP1 segment is expected before it.
+     */
+    private void probeJpeg() throws IOException {
+        final ByteOrderedDataInputStream in = mInputStream;
+        // Skip the start of image marker
+        in.skipFully(2);
+        while (true) {
+            if (in.readUnsignedByte() != MARKER) {
+                throw new IOException("Invalid JPEG marker");
+            }
+            int marker = in.readUnsignedByte();
+            // Skip fill bytes
+            while (marker == MARKER) {
+                marker = in.readUnsignedByte();
+            }
+            if (marker == MARKER_SOS || marker == MARKER_EOI) {
+                return;
+            }
+            if (marker == MARKER_TEM || (marker >= MARKER_RST0 && marker <= MARKER_RST7)) {
+                // Markers without a length
+                continue;
+            }
+            final int length = in.readUnsignedShort() - 2;
+            if (length < 0) {
+                throw new IOException("Invalid JPEG segment length: " + length);
+            }
+            if (marker >= MARKER_SOF0 && marker <= MARKER_SOF15 && marker != MARKER_DHT
+                    && marker != MARKER_JPG && marker != MARKER_DAC) {
+                // Skip the sample precision
+                in.skipFully(1);
+                mHeight = in.readUnsignedShort();
+                mWidth = in.readUnsignedShort();
+                return;
+            }
+            int bytesRead = 0;
+            if (marker == MARKER_APP1
+                    && mOrientation == ExifInterfaceExtendedCore.ORIENTATION_UNDEFINED) {
+                bytesRead = readTiffIfd0(length);
+            }
+            in.skipFully(length - bytesRead);
+        }
+    }
+
+    /**
+     * Reads the IHDR chunk, which contains the size of the image, and the eXIf chunk if it is
+     * stored before the image data.
+     */
+    private void probePng() throws IOException {
+        final ByteOrderedDataInputStream in = mInputStream;
+        // Skip the signature
+        in.skipFully(8);
+        int length = in.readInt();
+        if (in.readInt() != PNG_CHUNK_TYPE_IHDR || length < 8) {
+            throw new IOException("PNG image does not start with an IHDR chunk");
+        }
+        mWidth = in.readInt();
+        mHeight = in.readInt();
+        // Skip the rest of the chunk and its CRC
+        in.skipFully(length - 8 + 4);
+        while (true) {
+            length = in.readInt();
+            final int type = in.readInt();
+            if (length < 0 || type == PNG_CHUNK_TYPE_IDAT || type == PNG_CHUNK_TYPE_IEND) {
+                return;
+            }
+            if (type == PNG_CHUNK_TYPE_EXIF) {
+                readTiffIfd0(length);
+                return;
+            }
+            in.skipFully(length + 4);
+        }
+    }
+
+    /**
+     * Reads the header of the first chunk, which contains the size of the image. The EXIF chunk
+     * of extended images is stored after the image data, which is skipped to read it.
+     */
+    private void probeWebp() throws IOException {
+        final ByteOrderedDataInputStream in = mInputStream;
+        // Skip 'RIFF', the file size and 'WEBP'
+        in.skipFully(12);
+        final int type = in.readInt();
+        in.setByteOrder(ByteOrder.LITTLE_ENDIAN);
+        final long size = in.readUnsignedInt();
+        if (type == WEBP_CHUNK_TYPE_VP8) {
+            // Skip the frame tag
+            in.skipFully(3);
+            final int startCode = (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 8)
+                    | in.readUnsignedByte();
+            if (startCode != WEBP_VP8_START_CODE) {
+                throw new IOException("Invalid VP8 start code: " + Integer.toHexString(startCode));
+            }
+            mWidth = in.readUnsignedShort() & 0x3fff;
+            mHeight = in.readUnsignedShort() & 0x3fff;
+        } else if (type == WEBP_CHUNK_TYPE_VP8L) {
+            if (in.readUnsignedByte() != WEBP_VP8L_SIGNATURE) {
+                throw new IOException("Invalid VP8L signature");
+            }
+            final int bits = in.readInt();
+            mWidth = (bits & 0x3fff) + 1;
+            mHeight = ((bits >> 14) & 0x3fff) + 1;
+        } else if (type == WEBP_CHUNK_TYPE_VP8X) {
+            final int flags = in.readUnsignedByte();
+            // Skip the reserved bytes
+            in.skipFully(3);
+            mWidth = readUnsignedInt24(in) + 1;
+            mHeight = readUnsignedInt24(in) + 1;
+            if ((flags & WEBP_VP8X_FLAG_EXIF) == 0) {
+                return;
+            }
+            // Chunks are padded to an even size.
+            in.skipFully((int) (size + (size & 1) - 10));
+            try {
+                readWebpExifChunk();
+            } catch (EOFException e) {
+                // The EXIF chunk is missing despite the flag.
+            }
+        }
+    }
+
+    private void readWebpExifChunk() throws IOException {
+        final ByteOrderedDataInputStream in = mInputStream;
+        while (true) {
+            in.setByteOrder(ByteOrder.BIG_ENDIAN);
+            final int chunkType = in.readInt();
+            in.setByteOrder(ByteOrder.LITTLE_ENDIAN);
+            final long size = in.readUnsignedInt();
+            if (chunkType == WEBP_CHUNK_TYPE_EXIF) {
+                readTiffIfd0(size);
+                return;
+            }
+            if (size > Integer.MAX_VALUE - 1) {
+                throw new IOException("Invalid WebP chunk size: " + size);
+            }
+            in.skipFully((int) (size + (size & 1)));
+        }
+    }
+
+    /**
+     * Reads the size from the ispe and the orientation from the irot property of the primary
+     * item.
+     */
+    private void probeHeif() throws IOException {
+        final HeifParser parser =
+                new HeifParser((SeekableByteOrderedDataInputStream) mInputStream);
+        parser.parse();
+        mWidth = Math.max(parser.getImageWidth(), 0);
+        mHeight = Math.max(parser.getImageHeight(), 0);
+        // all rotation angles in CW
+        switch (parser.getRotationDegrees()) {
+            case 90:
+                mOrientation = ExifInterfaceExtendedCore.ORIENTATION_ROTATE_90;
+                break;
+            case 180:
+                mOrientation = ExifInterfaceExtendedCore.ORIENTATION_ROTATE_180;
+                break;
+            case 270:
+                mOrientation = ExifInterfaceExtendedCore.ORIENTATION_ROTATE_270;
+                break;
+            default:
+                mOrientation = ExifInterfaceExtendedCore.ORIENTATION_NORMAL;
+                break;
+        }
+    }
+
+    /**
+     * Reads the orientation from the embedded JPEG image. The size of the RAW image is not stored
+     * in a header.
+     */
+    private void probeRaf() throws IOException {
+        final ByteOrderedDataInputStream in = mInputStream;
+        in.skipFully(RAF_OFFSET_TO_JPEG_IMAGE_OFFSET);
+        final int jpegOffset = in.readInt();
+        if (jpegOffset < RAF_OFFSET_TO_JPEG_IMAGE_OFFSET + 4) {
+            throw new IOException("Invalid RAF JPEG offset: " + jpegOffset);
+        }
+        in.skipFully(jpegOffset - RAF_OFFSET_TO_JPEG_IMAGE_OFFSET - 4);
+        probeJpeg();
+        mWidth = 0;
+        mHeight = 0;
+    }
+
+    /**
+     * Reads the width, length and orientation tags of IFD0 of the TIFF data at the current
+     * position, which may be preceded by the Exif identifier. Other data is ignored.
+     *
+     * @param length the maximum number of bytes to read.
+     * @return the number of bytes read, which are 0 if the data is not TIFF data.
+     */
+    private int readTiffIfd0(long length) throws IOException {
+        final ByteOrderedDataInputStream in = mInputStream;
+        if (length < TIFF_HEADER_LENGTH) {
+            return 0;
+        }
+        in.setByteOrder(ByteOrder.BIG_ENDIAN);
+        int bytesRead = 2;
+        int byteOrder = in.readUnsignedShort();
+        if (byteOrder == ('E' << 8 | 'x')) {
+            // Skip the rest of the Exif identifier
+            final int identifierLength = ExifInterfaceExtendedCore.IDENTIFIER_EXIF_APP1.length;
+            if (length < identifierLength + TIFF_HEADER_LENGTH) {
+                return bytesRead;
+            }
+            in.skipFully(identifierLength - 2);
+            byteOrder = in.readUnsignedShort();
+            bytesRead = identifierLength + 2;
+            length -= identifierLength;
+        }
+        if (byteOrder == ExifInterfaceExtendedCore.BYTE_ALIGN_II) {
+            in.setByteOrder(ByteOrder.LITTLE_ENDIAN);
+        } else if (byteOrder != ExifInterfaceExtendedCore.BYTE_ALIGN_MM) {
+            // A segment with different data, e.g. XMP
+            return bytesRead;
+        }
+        mIsTiff = true;
+        try {
+            return readIfd0(length, bytesRead - 2);
+        } finally {
+            in.setByteOrder(ByteOrder.BIG_ENDIAN);
+        }
+    }
+
+    /**
+     * Reads the entries of IFD0 after the byte order of the TIFF header, which starts at the
+     * given number of bytes after the data passed to {@link #readTiffIfd0(long)}.
+     */
+    private int readIfd0(long length, int start) throws IOException {
+        final ByteOrderedDataInputStream in = mInputStream;
+        int bytesRead = start + 2;
+        // Skip the start code, which differs for ORF and RW2 images
+        in.skipFully(2);
+        final long ifdOffset = in.readUnsignedInt();
+        bytesRead += TIFF_HEADER_LENGTH - 2;
+        if (ifdOffset < TIFF_HEADER_LENGTH || ifdOffset + 2 > length
+                || ifdOffset > Integer.MAX_VALUE - start - 2) {
+            return bytesRead;
+        }
+        in.skipFully((int) (ifdOffset - TIFF_HEADER_LENGTH));
+        final int entryCount = in.readUnsignedShort();
+        bytesRead = start + (int) ifdOffset + 2;
+        // The size of a reduced resolution image, e.g. of DNG, is not the size of the image.
+        boolean isReducedResolution = false;
+        for (int i = 0; i < entryCount
+                && bytesRead - start + TIFF_ENTRY_LENGTH <= length; i++) {
+            final int tag = in.readUnsignedShort();
+            final int format = in.readUnsignedShort();
+            final long numberOfComponents = in.readUnsignedInt();
+            long value = -1;
+            if (format == ExifInterfaceExtendedCore.IFD_FORMAT_USHORT) {
+                value = in.readUnsignedShort();
+                in.skipFully(2);
+            } else if (format == ExifInterfaceExtendedCore.IFD_FORMAT_ULONG) {
+                value = in.readUnsignedInt();
+            } else {
+                in.skipFully(4);
+            }
+            bytesRead += TIFF_ENTRY_LENGTH;
+            if (tag == TAG_DNG_VERSION) {
+                mIsDng = true;
+            } else if (numberOfComponents == 1 && value >= 0 && value <= Integer.MAX_VALUE) {
+                // The size in the header of the image format takes precedence.
+                if (tag == TAG_NEW_SUBFILE_TYPE) {
+                    isReducedResolution = (value & 1) != 0;
+                } else if (tag == TAG_IMAGE_WIDTH && mWidth == 0 && !isReducedResolution) {
+                    mWidth = (int) value;
+                } else if (tag == TAG_IMAGE_LENGTH && mHeight == 0 && !isReducedResolution) {
+                    mHeight = (int) value;
+                } else if (tag == TAG_ORIENTATION) {
+                    mOrientation = (int) value;
+                }
+            }
+        }
+        return bytesRead;
+    }
+
+    private static int readUnsignedInt24(ByteOrderedDataInputStream in) throws IOException {
+        return in.readUnsignedByte() | (in.readUnsignedByte() << 8)
+                | (in.readUnsignedByte() << 16);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A data set of the IPTC-NAA record stored in the Photoshop Image Resources of a JPEG file, see
+ * {@link ExifInterfaceExtendedCore#getIptcDataSets()}.
+ * <p>
+ * Data sets are identified by their tag, which combines the record number in the high byte and the
+ * data set number in the low byte, e.g. {@link #CAPTION_ABSTRACT} is data set 2:120. Repeatable
+ * data sets, e.g. {@link #KEYWORDS}, are returned once per value. See IPTC-NAA Information
+ * Interchange Model Version 4.
+ */
+public final class IptcDataSet {
+
+    /** Coded character set of the envelope record, 1:90 */
+    public static final int CODED_CHARACTER_SET = 0x015a;
+    /** Record version, 2:00, a binary value */
+    public static final int RECORD_VERSION = 0x0200;
+    /** Object name, 2:05 */
+    public static final int OBJECT_NAME = 0x0205;
+    /** Urgency, 2:10 */
+    public static final int URGENCY = 0x020a;
+    /** Category, 2:15 */
+    public static final int CATEGORY = 0x020f;
+    /** Supplemental category, 2:20, repeatable */
+    public static final int SUPPLEMENTAL_CATEGORY = 0x0214;
+    /** Keywords, 2:25, repeatable */
+    public static final int KEYWORDS = 0x0219;
+    /** Special instructions, 2:40 */
+    public static final int SPECIAL_INSTRUCTIONS = 0x0228;
+    /** Date created, 2:55, formatted as {@code CCYYMMDD} */
+    public static final int DATE_CREATED = 0x0237;
+    /** Time created, 2:60, formatted as {@code HHMMSS±HHMM} */
+    public static final int TIME_CREATED = 0x023c;
+    /** By-line, i.e. the creator, 2:80, repeatable */
+    public static final int BY_LINE = 0x0250;
+    /** By-line title, 2:85, repeatable */
+    public static final int BY_LINE_TITLE = 0x0255;
+    /** City, 2:90 */
+    public static final int CITY = 0x025a;
+    /** Sub-location, 2:92 */
+    public static final int SUB_LOCATION = 0x025c;
+    /** Province or state, 2:95 */
+    public static final int PROVINCE_STATE = 0x025f;
+    /** Country code, 2:100 */
+    public static final int COUNTRY_CODE = 0x0264;
+    /** Country name, 2:101 */
+    public static final int COUNTRY_NAME = 0x0265;
+    /** Original transmission reference, 2:103 */
+    public static final int ORIGINAL_TRANSMISSION_REFERENCE = 0x0267;
+    /** Headline, 2:105 */
+    public static final int HEADLINE = 0x0269;
+    /** Credit, 2:110 */
+    public static final int CREDIT = 0x026e;
+    /** Source, 2:115 */
+    public static final int SOURCE = 0x0273;
+    /** Copyright notice, 2:116 */
+    public static final int COPYRIGHT_NOTICE = 0x0274;
+    /** Caption or abstract, 2:120 */
+    public static final int CAPTION_ABSTRACT = 0x0278;
+    /** Writer or editor of the caption, 2:122, repeatable */
+    public static final int WRITER_EDITOR = 0x027a;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    private final int mTag;
+    private final byte[] mValue;
+    private final boolean mIsUtf8;
+
+    /**
+     * @param isUtf8 whether the coded character set of the record is UTF-8
+     */
+    IptcDataSet(int tag, @NonNull byte[] value, boolean isUtf8) {
+        mTag = tag;
+        mValue = value;
+        mIsUtf8 = isUtf8;
+    }
+
+    /**
+     * Returns the tag of the data set, e.g. {@link #CAPTION_ABSTRACT}.
+     */
+    public int getTag() {
+        return mTag;
+    }
+
+    /**
+     * Returns the record number, e.g. 2 for the application record.
+     */
+    public int getRecordNumber() {
+        return mTag >> 8;
+    }
+
+    /**
+     * Returns the data set number within the record.
+     */
+    public int getDataSetNumber() {
+        return mTag & 0xff;
+    }
+
+    /**
+     * Returns the raw value of the data set.
+     */
+    @NonNull
+    public byte[] getValue() {
+        return mValue.clone();
+    }
+
+    /**
+     * Returns the value of a text data set. It is decoded as UTF-8 if the record declares it with
+     * {@link #CODED_CHARACTER_SET} or if it is valid UTF-8, and as ISO 8859-1 otherwise.
+     */
+    @NonNull
+    public String getStringValue() {
+        if (mIsUtf8) {
+            return new String(mValue, UTF_8);
+        }
+        try {
+            return UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(mValue))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            return new String(mValue, ISO_8859_1);
+        }
+    }
+
+    /**
+     * Returns the value of a binary data set, e.g. {@link #RECORD_VERSION}, as an unsigned big
+     * endian number.
+     *
+     * @throws NumberFormatException if the value is longer than four bytes
+     */
+    public long getLongValue() {
+        if (mValue.length > 4) {
+            throw new NumberFormatException("Value of " + mValue.length + " bytes is not a number");
+        }
+        long value = 0;
+        for (byte b : mValue) {
+            value = (value << 8) | (b & 0xff);
+        }
+        return value;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "IptcDataSet{" + getRecordNumber() + ":" + getDataSetNumber() + ", length="
+                + mValue.length + "}";
+    }
+}
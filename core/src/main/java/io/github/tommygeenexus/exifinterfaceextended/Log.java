@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The subset of {@code android.util.Log} used by the core classes, backed by
+ * {@link java.util.logging}.
+ * <p>
+ * This keeps the core classes free of Android dependencies while their logging code stays the
+ * same as in AndroidX ExifInterface. On Android, {@link java.util.logging} is forwarded to logcat.
+ */
+final class Log {
+
+    static final int DEBUG = 3;
+    static final int WARN = 5;
+
+    private Log() {
+        // Prevent instantiation
+    }
+
+    static boolean isLoggable(String tag, int level) {
+        return Logger.getLogger(tag).isLoggable(toLevel(level));
+    }
+
+    static void d(String tag, String msg) {
+        Logger.getLogger(tag).log(Level.FINE, msg);
+    }
+
+    static void d(String tag, String msg, Throwable tr) {
+        Logger.getLogger(tag).log(Level.FINE, msg, tr);
+    }
+
+    static void w(String tag, String msg) {
+        Logger.getLogger(tag).log(Level.WARNING, msg);
+    }
+
+    static void w(String tag, String msg, Throwable tr) {
+        Logger.getLogger(tag).log(Level.WARNING, msg, tr);
+    }
+
+    static void e(String tag, String msg) {
+        Logger.getLogger(tag).log(Level.SEVERE, msg);
+    }
+
+    static void e(String tag, String msg, Throwable tr) {
+        Logger.getLogger(tag).log(Level.SEVERE, msg, tr);
+    }
+
+    private static Level toLevel(int level) {
+        return level <= DEBUG ? Level.FINE : level == WARN ? Level.WARNING : Level.SEVERE;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+
+/**
+ * An entry of the Photoshop Image Resource Blocks stored in the APP13 segments of a JPEG file, see
+ * {@link ExifInterfaceExtendedCore#getPhotoshopImageResources()}. Only the location of the data is
+ * kept, the data itself is read with
+ * {@link ExifInterfaceExtendedCore#getPhotoshopImageResourceData(int)}.
+ */
+public final class PhotoshopImageResource {
+
+    /**
+     * The resource ID of the IPTC-NAA record, see
+     * {@link ExifInterfaceExtendedCore#getIptcDataSets()}.
+     */
+    public static final int ID_IPTC_NAA = 0x0404;
+
+    private final int mId;
+    private final String mName;
+    private final long mOffset;
+    private final int mLength;
+
+    PhotoshopImageResource(int id, @NonNull String name, long offset, int length) {
+        mId = id;
+        mName = name;
+        mOffset = offset;
+        mLength = length;
+    }
+
+    /**
+     * Returns the resource ID, e.g. {@link #ID_IPTC_NAA}.
+     */
+    public int getId() {
+        return mId;
+    }
+
+    /**
+     * Returns the name of the resource, which is empty for most resources.
+     */
+    @NonNull
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Returns the offset of the resource data inside the image file as it was read. The resource
+     * may have been moved by saving attributes since.
+     */
+    public long getOffset() {
+        return mOffset;
+    }
+
+    /**
+     * Returns the length of the resource data.
+     */
+    public int getLength() {
+        return mLength;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "PhotoshopImageResource{id=0x" + Integer.toHexString(mId) + ", name=" + mName
+                + ", offset=" + mOffset + ", length=" + mLength + "}";
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The locations of the Photoshop Image Resource Blocks in the APP13 segments of a JPEG file, which
+ * are indexed only when they are requested.
+ * <p>
+ * Each block consists of the signature {@code 8BIM}, a 2 byte resource ID, a padded Pascal string
+ * name, a 4 byte data length and the data, padded to an even length. See Adobe Photoshop File
+ * Formats Specification, Image Resource Blocks.
+ */
+final class PhotoshopImageResources {
+
+    private static final int SIGNATURE_8BIM = 0x3842494d; // "8BIM"
+    // Signature, ID, name length byte and padding, data length
+    private static final int MIN_BLOCK_LENGTH = 4 + 2 + 2 + 4;
+    // See IPTC-NAA Information Interchange Model Version 4, 1.5.1 Standard DataSet Tag
+    private static final int IPTC_TAG_MARKER = 0x1c;
+    private static final byte[] IPTC_UTF_8 = new byte[] { 0x1b, 0x25, 0x47 }; // ESC % G
+
+    private static final class Segment {
+        final long mOffset;
+        final int mLength;
+        // The data of the segment if the image data can't be read again
+        final byte[] mData;
+
+        Segment(long offset, int length, byte[] data) {
+            mOffset = offset;
+            mLength = length;
+            mData = data;
+        }
+    }
+
+    // Segments in the order in which they are stored in the image file
+    private final List<Segment> mSegments = new ArrayList<>();
+
+    /**
+     * Adds an APP13 segment. Segments must be added in the order in which they are stored in the
+     * image file.
+     *
+     * @param offset the offset of the resource blocks inside the image file
+     * @param length the length of the resource blocks
+     * @param data the resource blocks if the image data can't be read again, or {@code null}
+     */
+    void addSegment(long offset, int length, @Nullable byte[] data) {
+        mSegments.add(new Segment(offset, length, data));
+    }
+
+    /**
+     * Reads the segments which have not been kept into memory, e.g. before their offsets change
+     * because the image file is rewritten.
+     *
+     * @param in the image data from its start
+     */
+    void readSegments(@NonNull InputStream in) throws IOException {
+        final ByteOrderedDataInputStream source = new ByteOrderedDataInputStream(in);
+        for (int i = 0; i < mSegments.size(); i++) {
+            final Segment segment = mSegments.get(i);
+            if (segment.mData != null) {
+                continue;
+            }
+            seek(source, segment.mOffset);
+            final byte[] data = new byte[segment.mLength];
+            source.readFully(data);
+            mSegments.set(i, new Segment(segment.mOffset, segment.mLength, data));
+        }
+    }
+
+    /**
+     * Reads the headers of all resource blocks in one pass, skipping their data. Blocks which
+     * don't fit into their segment end the index of the segment.
+     *
+     * @param in the image data from its start, or {@code null} if the segments have been kept
+     */
+    @NonNull
+    List<PhotoshopImageResource> index(@Nullable InputStream in) throws IOException {
+        final List<PhotoshopImageResource> resources = new ArrayList<>();
+        final ByteOrderedDataInputStream fileSource =
+                in != null ? new ByteOrderedDataInputStream(in) : null;
+        for (Segment segment : mSegments) {
+            final ByteOrderedDataInputStream source;
+            if (segment.mData != null) {
+                source = new ByteOrderedDataInputStream(segment.mData);
+            } else {
+                source = requireSource(fileSource);
+                seek(source, segment.mOffset);
+            }
+            // Position relative to the start of the segment
+            long position = 0;
+            final long end = segment.mLength;
+            try {
+                while (position + MIN_BLOCK_LENGTH <= end) {
+                    if (source.readInt() != SIGNATURE_8BIM) {
+                        break;
+                    }
+                    final int id = source.readUnsignedShort();
+                    final int nameLength = source.readUnsignedByte();
+                    if (position + MIN_BLOCK_LENGTH + nameLength > end) {
+                        break;
+                    }
+                    final byte[] name = new byte[nameLength];
+                    source.readFully(name);
+                    // The name including its length byte is padded to an even length
+                    final int namePadding = (nameLength + 1) % 2;
+                    source.skipFully(namePadding);
+                    final long length = source.readUnsignedInt();
+                    position += 4 + 2 + 1 + nameLength + namePadding + 4;
+                    if (length > end - position) {
+                        break;
+                    }
+                    resources.add(new PhotoshopImageResource(id,
+                            new String(name, ExifInterfaceExtendedCore.ASCII),
+                            segment.mOffset + position, (int) length));
+                    final int padded = (int) (length + (length & 1));
+                    if (position + padded >= end) {
+                        break;
+                    }
+                    source.skipFully(padded);
+                    position += padded;
+                }
+            } catch (EOFException e) {
+                // Ignore the rest of a truncated segment
+            }
+        }
+        return Collections.unmodifiableList(resources);
+    }
+
+    /**
+     * Reads the data of the given resource.
+     *
+     * @param in the image data from its start, or {@code null} if the segments have been kept
+     */
+    @NonNull
+    byte[] readData(@NonNull PhotoshopImageResource resource, @Nullable InputStream in)
+            throws IOException {
+        final long offset = resource.getOffset();
+        for (Segment segment : mSegments) {
+            if (offset >= segment.mOffset && offset < segment.mOffset + segment.mLength
+                    && segment.mData != null) {
+                final int start = (int) (offset - segment.mOffset);
+                return Arrays.copyOfRange(segment.mData, start, start + resource.getLength());
+            }
+        }
+        final ByteOrderedDataInputStream source =
+                requireSource(in != null ? new ByteOrderedDataInputStream(in) : null);
+        seek(source, offset);
+        final byte[] data = new byte[resource.getLength()];
+        source.readFully(data);
+        return data;
+    }
+
+    /**
+     * Parses the data sets of an IPTC-NAA record, e.g. of the resource
+     * {@link PhotoshopImageResource#ID_IPTC_NAA}. Parsing stops at the first invalid data set.
+     */
+    @NonNull
+    static List<IptcDataSet> parseIptc(@NonNull byte[] data) {
+        final List<int[]> ranges = new ArrayList<>();
+        final List<Integer> tags = new ArrayList<>();
+        boolean isUtf8 = false;
+        int position = 0;
+        while (position + 5 <= data.length && (data[position] & 0xff) == IPTC_TAG_MARKER) {
+            final int tag = ((data[position + 1] & 0xff) << 8) | (data[position + 2] & 0xff);
+            int length = ((data[position + 3] & 0xff) << 8) | (data[position + 4] & 0xff);
+            position += 5;
+            if ((length & 0x8000) != 0) {
+                // Extended DataSet Tag, the length is stored in the following bytes
+                final int lengthOfLength = length & 0x7fff;
+                if (lengthOfLength > 4 || position + lengthOfLength > data.length) {
+                    break;
+                }
+                long extendedLength = 0;
+                for (int i = 0; i < lengthOfLength; i++) {
+                    extendedLength = (extendedLength << 8) | (data[position++] & 0xff);
+                }
+                if (extendedLength > Integer.MAX_VALUE) {
+                    break;
+                }
+                length = (int) extendedLength;
+            }
+            if (length > data.length - position) {
+                break;
+            }
+            if (tag == IptcDataSet.CODED_CHARACTER_SET) {
+                isUtf8 = Arrays.equals(IPTC_UTF_8,
+                        Arrays.copyOfRange(data, position, position + length));
+            }
+            tags.add(tag);
+            ranges.add(new int[] { position, length });
+            position += length;
+        }
+        final List<IptcDataSet> dataSets = new ArrayList<>(tags.size());
+        for (int i = 0; i < tags.size(); i++) {
+            final int[] range = ranges.get(i);
+            dataSets.add(new IptcDataSet(tags.get(i),
+                    Arrays.copyOfRange(data, range[0], range[0] + range[1]), isUtf8));
+        }
+        return Collections.unmodifiableList(dataSets);
+    }
+
+    private static ByteOrderedDataInputStream requireSource(
+            @Nullable ByteOrderedDataInputStream source) throws IOException {
+        if (source == null) {
+            throw new IOException("The image data can't be read again");
+        }
+        return source;
+    }
+
+    private static void seek(ByteOrderedDataInputStream source, long offset) throws IOException {
+        final long skip = offset - source.getPosition();
+        if (skip < 0 || skip > Integer.MAX_VALUE) {
+            throw new IOException("Invalid Photoshop Image Resource offset: " + offset);
+        }
+        source.skipFully((int) skip);
+    }
+}
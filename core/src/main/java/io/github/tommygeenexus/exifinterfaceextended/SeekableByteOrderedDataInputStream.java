@@ -17,20 +17,30 @@
 
 package io.github.tommygeenexus.exifinterfaceextended;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * An input stream class that can parse both little and big endian order data and also
  * supports seeking to any position in the stream via mark/reset.
+ * <p>
+ * When backed by a byte array or a {@link ByteBufferInputStream}, seeking repositions the
+ * underlying buffer directly. When backed by a {@link FileChannelInputStream}, mark/reset and
+ * skip only move the read position. In both cases, seeking does not retain the data that has
+ * already been read.
  */
 class SeekableByteOrderedDataInputStream extends ByteOrderedDataInputStream {
 
     SeekableByteOrderedDataInputStream(byte[] bytes) {
-        super(bytes);
-        // No need to check if mark is supported here since ByteOrderedDataInputStream will
-        // create a ByteArrayInputStream, which supports mark by default.
-        getDataInputStream().mark(Integer.MAX_VALUE);
+        this(bytes, 0, bytes.length);
+    }
+
+    SeekableByteOrderedDataInputStream(byte[] bytes, int offset, int length) {
+        // No need to mark here since ByteOrderedDataInputStream will read the bytes from a
+        // ByteBuffer, which can be repositioned directly.
+        super(bytes, offset, length);
     }
 
     /**
@@ -39,6 +49,9 @@ class SeekableByteOrderedDataInputStream extends ByteOrderedDataInputStream {
      */
     SeekableByteOrderedDataInputStream(InputStream in) {
         super(in);
+        if (getByteBuffer() != null) {
+            return;
+        }
         if (!in.markSupported()) {
             throw new IllegalArgumentException("Cannot create "
                     + "SeekableByteOrderedDataInputStream with stream that does not support "
@@ -55,6 +68,15 @@ class SeekableByteOrderedDataInputStream extends ByteOrderedDataInputStream {
      * beginning of the stream).
      */
     public void seek(long position) throws IOException {
+        ByteBuffer buffer = getByteBuffer();
+        if (buffer != null) {
+            if (position < 0 || position > buffer.limit()) {
+                throw new EOFException("Reached EOF while seeking to " + position + ".");
+            }
+            buffer.position((int) position);
+            setPosition((int) position);
+            return;
+        }
         if (getPosition() > position) {
             setPosition(0);
             getDataInputStream().reset();
@@ -0,0 +1,579 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A flat index of the properties of an XMP packet, see
+ * {@link ExifInterfaceExtendedCore#getXmpIndex()}.
+ * <p>
+ * The index is built by a single pass over the UTF-8 encoded packet without building a document
+ * tree. Each simple value is indexed by the namespace URI of its top-level property and its path,
+ * and only the range of the value in the packet is stored. Values are decoded when they are
+ * requested.
+ * <p>
+ * The path of a top-level property is its local name, e.g. {@code Rating} for
+ * {@code xmp:Rating}. Items of arrays are appended with their index starting at 1, e.g.
+ * {@code ISOSpeedRatings[1]}, and fields of structures with a slash and their qualified name as
+ * written in the packet, e.g. {@code History[1]/stEvt:action}.
+ */
+public final class XmpIndex {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String NAMESPACE_RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+    private static final String NAMESPACE_XML = "http://www.w3.org/XML/1998/namespace";
+
+    private final byte[] mXmp;
+    private final List<String> mNamespaces = new ArrayList<>();
+    private final List<String> mPaths = new ArrayList<>();
+    // Offset and length of each value
+    private int[] mRanges = new int[32];
+
+    private XmpIndex(byte[] xmp) {
+        mXmp = xmp;
+    }
+
+    /**
+     * Builds the index of the given XMP packet. Malformed markup ends the index at the point
+     * where it is found.
+     */
+    @NonNull
+    static XmpIndex build(@NonNull byte[] xmp) {
+        final XmpIndex index = new XmpIndex(xmp);
+        new Parser(xmp, index).parse();
+        return index;
+    }
+
+    /**
+     * Returns the number of indexed values.
+     */
+    public int size() {
+        return mPaths.size();
+    }
+
+    /**
+     * Returns the namespace URI of the top-level property of the value at the given position.
+     */
+    @NonNull
+    public String getNamespace(int index) {
+        return mNamespaces.get(index);
+    }
+
+    /**
+     * Returns the path of the value at the given position.
+     */
+    @NonNull
+    public String getPath(int index) {
+        return mPaths.get(index);
+    }
+
+    /**
+     * Returns the offset of the value at the given position in the XMP packet, i.e. in the bytes
+     * of {@link ExifInterfaceExtendedCore#TAG_XMP}. The value is stored with XML escaping.
+     */
+    public int getValueOffset(int index) {
+        checkIndex(index);
+        return mRanges[2 * index];
+    }
+
+    /**
+     * Returns the length of the value at the given position in the XMP packet.
+     */
+    public int getValueLength(int index) {
+        checkIndex(index);
+        return mRanges[2 * index + 1];
+    }
+
+    /**
+     * Returns the decoded value at the given position.
+     */
+    @NonNull
+    public String getValue(int index) {
+        return decode(getValueOffset(index), getValueLength(index));
+    }
+
+    /**
+     * Returns the position of the value with the given namespace URI and path, or -1 if there is
+     * none.
+     *
+     * @param namespace the namespace URI, e.g. {@code http://ns.adobe.com/xap/1.0/}
+     * @param path the path, e.g. {@code Rating}
+     */
+    public int indexOf(@NonNull String namespace, @NonNull String path) {
+        for (int i = 0; i < mPaths.size(); i++) {
+            if (mPaths.get(i).equals(path) && mNamespaces.get(i).equals(namespace)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the decoded value with the given namespace URI and path, or {@code null} if there
+     * is none.
+     *
+     * @param namespace the namespace URI, e.g. {@code http://ns.adobe.com/xap/1.0/}
+     * @param path the path, e.g. {@code Rating}
+     */
+    @Nullable
+    public String getValue(@NonNull String namespace, @NonNull String path) {
+        final int index = indexOf(namespace, path);
+        return index >= 0 ? getValue(index) : null;
+    }
+
+    /**
+     * Returns the paths of all values of the given namespace URI in the order in which they are
+     * stored.
+     */
+    @NonNull
+    public List<String> getPaths(@NonNull String namespace) {
+        final List<String> paths = new ArrayList<>();
+        for (int i = 0; i < mPaths.size(); i++) {
+            if (mNamespaces.get(i).equals(namespace)) {
+                paths.add(mPaths.get(i));
+            }
+        }
+        return Collections.unmodifiableList(paths);
+    }
+
+    private void add(String namespace, String path, int offset, int length) {
+        final int size = mPaths.size();
+        if (2 * size + 2 > mRanges.length) {
+            final int[] ranges = new int[mRanges.length * 2];
+            System.arraycopy(mRanges, 0, ranges, 0, mRanges.length);
+            mRanges = ranges;
+        }
+        mRanges[2 * size] = offset;
+        mRanges[2 * size + 1] = length;
+        mNamespaces.add(namespace);
+        mPaths.add(path);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mPaths.size()) {
+            throw new IndexOutOfBoundsException("Invalid index " + index + ", size is "
+                    + mPaths.size());
+        }
+    }
+
+    // Resolves character and predefined entity references.
+    private String decode(int offset, int length) {
+        final int end = offset + length;
+        int ampersand = offset;
+        while (ampersand < end && mXmp[ampersand] != '&') {
+            ampersand++;
+        }
+        if (ampersand == end) {
+            return new String(mXmp, offset, length, UTF_8);
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(length);
+        int i = offset;
+        while (i < end) {
+            final byte b = mXmp[i];
+            int semicolon;
+            if (b != '&' || (semicolon = indexOf(mXmp, (byte) ';', i, end)) < 0) {
+                out.write(b);
+                i++;
+                continue;
+            }
+            final String entity = new String(mXmp, i + 1, semicolon - i - 1, UTF_8);
+            final int codePoint = resolveEntity(entity);
+            if (codePoint < 0) {
+                out.write(b);
+                i++;
+                continue;
+            }
+            final byte[] encoded = new String(Character.toChars(codePoint)).getBytes(UTF_8);
+            out.write(encoded, 0, encoded.length);
+            i = semicolon + 1;
+        }
+        return new String(out.toByteArray(), UTF_8);
+    }
+
+    private static int resolveEntity(String entity) {
+        switch (entity) {
+            case "amp":
+                return '&';
+            case "lt":
+                return '<';
+            case "gt":
+                return '>';
+            case "quot":
+                return '"';
+            case "apos":
+                return '\'';
+            default:
+                break;
+        }
+        try {
+            if (entity.startsWith("#x")) {
+                return Integer.parseInt(entity.substring(2), 16);
+            } else if (entity.startsWith("#")) {
+                return Integer.parseInt(entity.substring(1));
+            }
+        } catch (NumberFormatException e) {
+            // Not a character reference
+        }
+        return -1;
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Pulls the tags of the packet one by one and tracks the RDF structure they describe.
+     */
+    private static final class Parser {
+
+        // Kinds of open elements
+        private static final int IGNORED = 0;
+        private static final int RDF = 1;
+        private static final int DESCRIPTION = 2;
+        private static final int PROPERTY = 3;
+        private static final int CONTAINER = 4;
+
+        private final byte[] mXmp;
+        private final XmpIndex mIndex;
+        private int mPosition;
+
+        // Open elements
+        private final List<Element> mElements = new ArrayList<>();
+        // Prefixes and namespace URIs in declaration order, scoped by the open elements
+        private final List<String> mPrefixes = new ArrayList<>();
+        private final List<String> mNamespaceUris = new ArrayList<>();
+
+        // Attributes of the current start tag
+        private final List<String> mAttributeNames = new ArrayList<>();
+        private final List<int[]> mAttributeValues = new ArrayList<>();
+
+        private static final class Element {
+            final String mName;
+            final int mKind;
+            // Namespace URI of the top-level property and path, for properties and structures
+            final String mNamespace;
+            final String mPath;
+            final int mNamespaceCount;
+            int mContentStart;
+            boolean mHasChildElements;
+            int mItemCount;
+
+            Element(String name, int kind, String namespace, String path, int namespaceCount) {
+                mName = name;
+                mKind = kind;
+                mNamespace = namespace;
+                mPath = path;
+                mNamespaceCount = namespaceCount;
+            }
+        }
+
+        Parser(byte[] xmp, XmpIndex index) {
+            mXmp = xmp;
+            mIndex = index;
+        }
+
+        void parse() {
+            final byte[] xmp = mXmp;
+            while (true) {
+                final int start = indexOf(xmp, (byte) '<', mPosition, xmp.length);
+                if (start < 0 || start + 1 >= xmp.length) {
+                    return;
+                }
+                mPosition = start + 1;
+                final byte next = xmp[mPosition];
+                if (next == '?') {
+                    if (!skipPast("?>")) {
+                        return;
+                    }
+                } else if (next == '!') {
+                    final String end = startsWith("!--") ? "-->"
+                            : startsWith("![CDATA[") ? "]]>" : ">";
+                    if (!skipPast(end)) {
+                        return;
+                    }
+                } else if (next == '/') {
+                    mPosition++;
+                    final String name = readName();
+                    if (!skipPast(">") || !endElement(name, start)) {
+                        return;
+                    }
+                } else if (!startElement()) {
+                    return;
+                }
+            }
+        }
+
+        private boolean startElement() {
+            final String name = readName();
+            if (name.isEmpty()) {
+                return false;
+            }
+            mAttributeNames.clear();
+            mAttributeValues.clear();
+            final int namespaceCount = mPrefixes.size();
+            boolean isEmpty = false;
+            while (true) {
+                skipWhitespace();
+                if (mPosition >= mXmp.length) {
+                    return false;
+                }
+                final byte b = mXmp[mPosition];
+                if (b == '>') {
+                    mPosition++;
+                    break;
+                } else if (b == '/') {
+                    if (!skipPast(">")) {
+                        return false;
+                    }
+                    isEmpty = true;
+                    break;
+                }
+                final String attributeName = readName();
+                skipWhitespace();
+                if (attributeName.isEmpty() || mPosition >= mXmp.length
+                        || mXmp[mPosition] != '=') {
+                    return false;
+                }
+                mPosition++;
+                skipWhitespace();
+                if (mPosition >= mXmp.length) {
+                    return false;
+                }
+                final byte quote = mXmp[mPosition];
+                final int valueStart = mPosition + 1;
+                final int valueEnd = quote == '"' || quote == '\''
+                        ? indexOf(mXmp, quote, valueStart, mXmp.length) : -1;
+                if (valueEnd < 0) {
+                    return false;
+                }
+                mPosition = valueEnd + 1;
+                if (attributeName.equals("xmlns")) {
+                    declareNamespace("", valueStart, valueEnd);
+                } else if (attributeName.startsWith("xmlns:")) {
+                    declareNamespace(attributeName.substring(6), valueStart, valueEnd);
+                } else {
+                    mAttributeNames.add(attributeName);
+                    mAttributeValues.add(new int[] { valueStart, valueEnd - valueStart });
+                }
+            }
+
+            final Element element = createElement(name, namespaceCount);
+            element.mContentStart = mPosition;
+            mElements.add(element);
+            if (isEmpty) {
+                return endElement(name, mPosition);
+            }
+            return true;
+        }
+
+        private Element createElement(String name, int namespaceCount) {
+            final Element parent = mElements.isEmpty() ? null : mElements.get(mElements.size() - 1);
+            final int parentKind = parent != null ? parent.mKind : IGNORED;
+            final String uri = resolveNamespace(name);
+            final boolean isRdf = NAMESPACE_RDF.equals(uri);
+            final String localName = localName(name);
+            if (parent != null) {
+                parent.mHasChildElements = true;
+            }
+
+            if (isRdf && localName.equals("RDF")) {
+                return new Element(name, RDF, null, null, namespaceCount);
+            }
+            if (parentKind == RDF) {
+                if (isRdf && localName.equals("Description")) {
+                    indexAttributes(null, null);
+                    return new Element(name, DESCRIPTION, null, null, namespaceCount);
+                }
+                return new Element(name, IGNORED, null, null, namespaceCount);
+            }
+            if (parentKind == DESCRIPTION && !isRdf) {
+                // A property, or a field of a structure
+                final String namespace = parent.mNamespace != null ? parent.mNamespace : uri;
+                final String path = parent.mPath != null ? parent.mPath + "/" + name : localName;
+                return createProperty(name, namespace, path, namespaceCount);
+            }
+            if (parentKind == PROPERTY && isRdf) {
+                if (localName.equals("Seq") || localName.equals("Bag")
+                        || localName.equals("Alt")) {
+                    return new Element(name, CONTAINER, parent.mNamespace, parent.mPath,
+                            namespaceCount);
+                }
+                if (localName.equals("Description")) {
+                    // A structure
+                    indexAttributes(parent.mNamespace, parent.mPath);
+                    return new Element(name, DESCRIPTION, parent.mNamespace, parent.mPath,
+                            namespaceCount);
+                }
+            }
+            if (parentKind == CONTAINER && isRdf && localName.equals("li")) {
+                final String path = parent.mPath + "[" + ++parent.mItemCount + "]";
+                return createProperty(name, parent.mNamespace, path, namespaceCount);
+            }
+            return new Element(name, IGNORED, null, null, namespaceCount);
+        }
+
+        private Element createProperty(String name, String namespace, String path,
+                int namespaceCount) {
+            boolean isStructure = false;
+            for (int i = 0; i < mAttributeNames.size(); i++) {
+                final String attributeName = mAttributeNames.get(i);
+                final String attributeUri = resolveNamespace(attributeName);
+                final String localName = localName(attributeName);
+                final int[] value = mAttributeValues.get(i);
+                if (NAMESPACE_RDF.equals(attributeUri)) {
+                    if (localName.equals("resource")) {
+                        mIndex.add(namespace, path, value[0], value[1]);
+                    } else if (localName.equals("parseType")
+                            && matches(value, "Resource")) {
+                        isStructure = true;
+                    }
+                } else if (!NAMESPACE_XML.equals(attributeUri)) {
+                    // A field of a structure in shorthand form
+                    mIndex.add(namespace, path + "/" + attributeName, value[0], value[1]);
+                }
+            }
+            return new Element(name, isStructure ? DESCRIPTION : PROPERTY, namespace, path,
+                    namespaceCount);
+        }
+
+        private void indexAttributes(String namespace, String path) {
+            for (int i = 0; i < mAttributeNames.size(); i++) {
+                final String attributeName = mAttributeNames.get(i);
+                final String attributeUri = resolveNamespace(attributeName);
+                if (attributeUri == null || NAMESPACE_RDF.equals(attributeUri)
+                        || NAMESPACE_XML.equals(attributeUri)) {
+                    continue;
+                }
+                final int[] value = mAttributeValues.get(i);
+                if (path == null) {
+                    mIndex.add(attributeUri, localName(attributeName), value[0], value[1]);
+                } else {
+                    mIndex.add(namespace, path + "/" + attributeName, value[0], value[1]);
+                }
+            }
+        }
+
+        private boolean endElement(String name, int contentEnd) {
+            if (mElements.isEmpty()) {
+                return false;
+            }
+            final Element element = mElements.remove(mElements.size() - 1);
+            if (!element.mName.equals(name)) {
+                return false;
+            }
+            if (element.mKind == PROPERTY && !element.mHasChildElements
+                    && contentEnd > element.mContentStart) {
+                mIndex.add(element.mNamespace, element.mPath, element.mContentStart,
+                        contentEnd - element.mContentStart);
+            }
+            // Leave the scope of the namespaces declared by the element
+            while (mPrefixes.size() > element.mNamespaceCount) {
+                mPrefixes.remove(mPrefixes.size() - 1);
+                mNamespaceUris.remove(mNamespaceUris.size() - 1);
+            }
+            return true;
+        }
+
+        private void declareNamespace(String prefix, int valueStart, int valueEnd) {
+            mPrefixes.add(prefix);
+            mNamespaceUris.add(new String(mXmp, valueStart, valueEnd - valueStart, UTF_8));
+        }
+
+        @Nullable
+        private String resolveNamespace(String name) {
+            final int colon = name.indexOf(':');
+            final String prefix = colon >= 0 ? name.substring(0, colon) : "";
+            if (prefix.equals("xml")) {
+                return NAMESPACE_XML;
+            }
+            for (int i = mPrefixes.size() - 1; i >= 0; i--) {
+                if (mPrefixes.get(i).equals(prefix)) {
+                    return mNamespaceUris.get(i);
+                }
+            }
+            return null;
+        }
+
+        private static String localName(String name) {
+            return name.substring(name.indexOf(':') + 1);
+        }
+
+        private boolean matches(int[] range, String value) {
+            return new String(mXmp, range[0], range[1], UTF_8).equals(value);
+        }
+
+        private String readName() {
+            final int start = mPosition;
+            while (mPosition < mXmp.length) {
+                final byte b = mXmp[mPosition];
+                if (b == '>' || b == '/' || b == '=' || b == ' ' || b == '\t' || b == '\n'
+                        || b == '\r') {
+                    break;
+                }
+                mPosition++;
+            }
+            return new String(mXmp, start, mPosition - start, UTF_8);
+        }
+
+        private void skipWhitespace() {
+            while (mPosition < mXmp.length) {
+                final byte b = mXmp[mPosition];
+                if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                    return;
+                }
+                mPosition++;
+            }
+        }
+
+        private boolean startsWith(String value) {
+            if (mPosition + value.length() > mXmp.length) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                if (mXmp[mPosition + i] != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean skipPast(String value) {
+            while (mPosition < mXmp.length) {
+                if (startsWith(value)) {
+                    mPosition += value.length();
+                    return true;
+                }
+                mPosition++;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Changes the padding of XMP packets.
+ * <p>
+ * The padding is the whitespace in front of the packet trailer ({@code <?xpacket end=...?>}),
+ * which allows to change a packet in place as long as the new packet fits into the old one. See
+ * XMP Specification Part 1, 7.3.2 Padding. Packets without a trailer, or in an encoding other
+ * than UTF-8, are not changed.
+ */
+final class XmpPadding {
+
+    private static final byte[] TRAILER =
+            "<?xpacket end=".getBytes(ExifInterfaceExtendedCore.ASCII);
+    // The recommended padding consists of lines of 100 characters
+    private static final int LINE_LENGTH = 100;
+
+    private XmpPadding() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Returns the packet with at least the given number of padding bytes, or the packet itself if
+     * it already has enough padding or has no trailer.
+     */
+    @NonNull
+    static byte[] pad(@NonNull byte[] packet, int paddingLength) {
+        final int trailer = indexOfTrailer(packet);
+        if (trailer < 0) {
+            return packet;
+        }
+        final int padding = trailer - startOfPadding(packet, trailer);
+        if (padding >= paddingLength) {
+            return packet;
+        }
+        return resize(packet, trailer, packet.length + paddingLength - padding);
+    }
+
+    /**
+     * Returns the packet changed to the given length by adding or removing padding, or
+     * {@code null} if it has no trailer or not enough padding.
+     */
+    @Nullable
+    static byte[] resize(@NonNull byte[] packet, int length) {
+        final int trailer = indexOfTrailer(packet);
+        if (trailer < 0 || packet.length - (trailer - startOfPadding(packet, trailer)) > length) {
+            return null;
+        }
+        return resize(packet, trailer, length);
+    }
+
+    private static byte[] resize(byte[] packet, int trailer, int length) {
+        final int start = startOfPadding(packet, trailer);
+        final int trailerLength = packet.length - trailer;
+        final int paddingLength = length - start - trailerLength;
+        final byte[] resized = new byte[length];
+        System.arraycopy(packet, 0, resized, 0, start);
+        for (int i = 0; i < paddingLength; i++) {
+            resized[start + i] = (byte) (i % LINE_LENGTH == LINE_LENGTH - 1 ? '\n' : ' ');
+        }
+        if (paddingLength > 0) {
+            // Keep the trailer on a line of its own
+            resized[start + paddingLength - 1] = '\n';
+        }
+        System.arraycopy(packet, trailer, resized, length - trailerLength, trailerLength);
+        return resized;
+    }
+
+    private static int indexOfTrailer(byte[] packet) {
+        outer:
+        for (int i = packet.length - TRAILER.length; i >= 0; i--) {
+            for (int j = 0; j < TRAILER.length; j++) {
+                if (packet[i + j] != TRAILER[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int startOfPadding(byte[] packet, int trailer) {
+        int start = trailer;
+        while (start > 0 && isWhitespace(packet[start - 1])) {
+            start--;
+        }
+        return start;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+}
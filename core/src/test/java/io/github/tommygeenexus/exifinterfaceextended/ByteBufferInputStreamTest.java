@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Test {@link ByteBufferInputStream}.
+ */
+@RunWith(JUnit4.class)
+public class ByteBufferInputStreamTest {
+
+    private static final int LENGTH = 1000;
+    private static final int START = 10;
+
+    private byte[] mData;
+    private ByteBuffer mBuffer;
+
+    @Before
+    public void setUp() {
+        mData = new byte[LENGTH];
+        for (int i = 0; i < mData.length; i++) {
+            mData[i] = (byte) (i * 31 + i / 256);
+        }
+        mBuffer = ByteBuffer.wrap(mData);
+    }
+
+    @Test
+    public void testRead() {
+        mBuffer.position(START);
+        final ByteBufferInputStream in = new ByteBufferInputStream(mBuffer);
+
+        // Bytes are read from the current position of the buffer.
+        assertThat(in.read()).isEqualTo(mData[START] & 0xff);
+        assertThat(in.available()).isEqualTo(LENGTH - START - 1);
+        final int offset = 3;
+        final byte[] bytes = new byte[100 + offset];
+        assertThat(in.read(bytes, offset, 100)).isEqualTo(100);
+        assertThat(Arrays.copyOfRange(bytes, offset, bytes.length))
+                .isEqualTo(Arrays.copyOfRange(mData, START + 1, START + 101));
+        assertThat(in.getByteBuffer().position()).isEqualTo(START + 101);
+
+        // The position and limit of the given buffer are never changed.
+        assertThat(mBuffer.position()).isEqualTo(START);
+        assertThat(mBuffer.limit()).isEqualTo(LENGTH);
+    }
+
+    @Test
+    public void testMarkResetAndSkip() {
+        final ByteBufferInputStream in = new ByteBufferInputStream(mBuffer);
+        assertThat(in.markSupported()).isTrue();
+
+        // Without a mark, the stream is reset to the initial position of the buffer.
+        assertThat(in.skip(START)).isEqualTo(START);
+        in.reset();
+        assertThat(in.read()).isEqualTo(mData[0] & 0xff);
+
+        assertThat(in.skip(START - 1)).isEqualTo(START - 1);
+        in.mark(0);
+        assertThat(in.skip(500)).isEqualTo(500);
+        assertThat(in.read()).isEqualTo(mData[START + 500] & 0xff);
+        in.reset();
+        assertThat(in.read()).isEqualTo(mData[START] & 0xff);
+
+        // Skipping stops at the end of the buffer, not skipping is a no-op.
+        assertThat(in.skip(0)).isEqualTo(0);
+        assertThat(in.skip(-1)).isEqualTo(0);
+        assertThat(in.skip(LENGTH)).isEqualTo(LENGTH - START - 1);
+        assertThat(in.available()).isEqualTo(0);
+    }
+
+    @Test
+    public void testEndOfBuffer() {
+        mBuffer.limit(LENGTH - 1);
+        final ByteBufferInputStream in = new ByteBufferInputStream(mBuffer);
+        in.skip(LENGTH - 3);
+
+        // A read past the limit returns the remaining bytes, then -1.
+        final byte[] bytes = new byte[4];
+        assertThat(in.read(bytes, 0, bytes.length)).isEqualTo(2);
+        assertThat(Arrays.copyOf(bytes, 2))
+                .isEqualTo(Arrays.copyOfRange(mData, LENGTH - 3, LENGTH - 1));
+        assertThat(in.read()).isEqualTo(-1);
+        assertThat(in.read(bytes, 0, bytes.length)).isEqualTo(-1);
+        assertThat(in.read(bytes, 0, 0)).isEqualTo(0);
+        assertThat(in.available()).isEqualTo(0);
+        assertThat(in.skip(1)).isEqualTo(0);
+
+        // The stream can still be reset from the end of the buffer.
+        in.reset();
+        assertThat(in.read()).isEqualTo(mData[0] & 0xff);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Test {@link ExifAttributeMap}.
+ */
+@RunWith(JUnit4.class)
+public class ExifAttributeMapTest {
+
+    // More tags than the initial capacity of a map, so it has to grow several times.
+    private static final int TAG_COUNT = 40;
+    private static final String FALLBACK_TAG = "FallbackTag";
+    private static final String SHARED_TAG = "SharedTag";
+    private static final String UNKNOWN_TAG = "UnknownTag";
+
+    private final Map<String, ExifTag> mTags = new HashMap<>();
+    private final Map<String, ExifTag> mFallbackTags = new HashMap<>();
+    private final List<String> mNames = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        for (int i = 1; i <= TAG_COUNT; i++) {
+            final String name = getName(i);
+            mTags.put(name, new ExifTag(name, i * 10, ExifInterfaceExtendedCore.IFD_FORMAT_ULONG));
+            mNames.add(name);
+        }
+        mFallbackTags.putAll(mTags);
+        mFallbackTags.put(FALLBACK_TAG,
+                new ExifTag(FALLBACK_TAG, 5, ExifInterfaceExtendedCore.IFD_FORMAT_ULONG));
+        // Shares the tag number of the tenth tag, like tags of different IFDs may do.
+        mFallbackTags.put(SHARED_TAG,
+                new ExifTag(SHARED_TAG, 100, ExifInterfaceExtendedCore.IFD_FORMAT_ULONG));
+    }
+
+    @Test
+    public void testPutInRandomOrder() {
+        final ExifAttributeMap map = new ExifAttributeMap(mTags, mFallbackTags);
+        final List<String> names = new ArrayList<>(mNames);
+        Collections.shuffle(names, new Random(42));
+        for (String name : names) {
+            map.put(name, createAttribute(name));
+        }
+
+        // Entries are iterated by tag number, regardless of the insertion order.
+        assertThat(map.size()).isEqualTo(TAG_COUNT);
+        for (int i = 0; i < TAG_COUNT; i++) {
+            assertThat(map.getNumber(i)).isEqualTo((i + 1) * 10);
+            assertThat(map.getName(i)).isEqualTo(getName(i + 1));
+            assertThat(map.getValue(i).getIntValue(ByteOrder.BIG_ENDIAN)).isEqualTo(i + 1);
+            assertThat(map.indexOf((i + 1) * 10)).isEqualTo(i);
+        }
+        for (String name : names) {
+            assertThat(map.get(name)).isSameInstanceAs(map.getValue(mNames.indexOf(name)));
+        }
+    }
+
+    @Test
+    public void testMissingTags() {
+        final ExifAttributeMap map = new ExifAttributeMap(mTags, mFallbackTags);
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.get(getName(1))).isNull();
+        assertThat(map.remove(getName(1))).isNull();
+        assertThat(map.indexOf(10)).isEqualTo(-1);
+
+        map.put(getName(2), createAttribute(getName(2)));
+        map.put(getName(4), createAttribute(getName(4)));
+        assertThat(map.isEmpty()).isFalse();
+        // Before, between and after the entries, and of tags which aren't in any table
+        for (String name : new String[] { getName(1), getName(3), getName(5), UNKNOWN_TAG }) {
+            assertThat(map.get(name)).isNull();
+            assertThat(map.remove(name)).isNull();
+        }
+        for (int number : new int[] { 5, 10, 15, 30, 50, 1000 }) {
+            assertThat(map.indexOf(number)).isEqualTo(-1);
+        }
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRemoveAndReplaceAtBounds() {
+        final ExifAttributeMap map = new ExifAttributeMap(mTags, mFallbackTags);
+        for (String name : mNames) {
+            map.put(name, createAttribute(name));
+        }
+        final String first = getName(1);
+        final String last = getName(TAG_COUNT);
+
+        // Replacing keeps the position of the entry.
+        final ExifAttribute firstValue = ExifAttribute.createULong(100, ByteOrder.BIG_ENDIAN);
+        final ExifAttribute lastValue = ExifAttribute.createULong(200, ByteOrder.BIG_ENDIAN);
+        map.put(first, firstValue);
+        map.put(last, lastValue);
+        assertThat(map.size()).isEqualTo(TAG_COUNT);
+        assertThat(map.getValue(0)).isSameInstanceAs(firstValue);
+        assertThat(map.getValue(TAG_COUNT - 1)).isSameInstanceAs(lastValue);
+
+        assertThat(map.remove(first)).isSameInstanceAs(firstValue);
+        assertThat(map.remove(last)).isSameInstanceAs(lastValue);
+        assertThat(map.size()).isEqualTo(TAG_COUNT - 2);
+        assertThat(map.getName(0)).isEqualTo(getName(2));
+        assertThat(map.getName(map.size() - 1)).isEqualTo(getName(TAG_COUNT - 1));
+        assertThat(map.get(first)).isNull();
+        assertThat(map.get(last)).isNull();
+
+        map.removeAt(map.size() - 1);
+        map.removeAt(0);
+        assertThat(map.size()).isEqualTo(TAG_COUNT - 4);
+        assertThat(map.getName(0)).isEqualTo(getName(3));
+        assertThat(map.getName(map.size() - 1)).isEqualTo(getName(TAG_COUNT - 2));
+
+        // Removed entries can be added again at both ends.
+        map.put(last, lastValue);
+        map.put(first, firstValue);
+        assertThat(map.getValue(0)).isSameInstanceAs(firstValue);
+        assertThat(map.getValue(map.size() - 1)).isSameInstanceAs(lastValue);
+
+        while (!map.isEmpty()) {
+            map.removeAt(0);
+        }
+        assertThat(map.get(getName(3))).isNull();
+        assertThat(map.indexOf(30)).isEqualTo(-1);
+    }
+
+    @Test
+    public void testGrowth() {
+        final ExifAttributeMap map = new ExifAttributeMap(mTags, mFallbackTags);
+        // Insert in descending order, so every entry moves all others while the map grows.
+        for (int i = TAG_COUNT; i >= 1; i--) {
+            map.put(getName(i), createAttribute(getName(i)));
+            assertThat(map.size()).isEqualTo(TAG_COUNT - i + 1);
+            assertThat(map.getName(0)).isEqualTo(getName(i));
+            assertThat(map.getName(map.size() - 1)).isEqualTo(getName(TAG_COUNT));
+        }
+        for (int i = 1; i <= TAG_COUNT; i++) {
+            assertThat(map.get(getName(i)).getIntValue(ByteOrder.BIG_ENDIAN)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void testFallbackTags() {
+        final ExifAttributeMap map = new ExifAttributeMap(mTags, mFallbackTags);
+        final ExifAttribute shared = ExifAttribute.createULong(100, ByteOrder.BIG_ENDIAN);
+        final ExifAttribute fallback = ExifAttribute.createULong(200, ByteOrder.BIG_ENDIAN);
+        final ExifAttribute unknown = ExifAttribute.createULong(300, ByteOrder.BIG_ENDIAN);
+        map.put(getName(20), createAttribute(getName(20)));
+        map.put(SHARED_TAG, shared);
+        map.put(getName(10), createAttribute(getName(10)));
+        map.put(FALLBACK_TAG, fallback);
+        map.put(UNKNOWN_TAG, unknown);
+
+        // Tags of other IFDs are sorted by their number, tags of no IFD before all others, and
+        // entries with the same number keep their insertion order.
+        assertThat(map.size()).isEqualTo(5);
+        final String[] names = { UNKNOWN_TAG, FALLBACK_TAG, SHARED_TAG, getName(10), getName(20) };
+        final int[] numbers = { -1, 5, 100, 100, 200 };
+        for (int i = 0; i < names.length; i++) {
+            assertThat(map.getName(i)).isEqualTo(names[i]);
+            assertThat(map.getNumber(i)).isEqualTo(numbers[i]);
+        }
+        assertThat(map.indexOf(100)).isEqualTo(2);
+        assertThat(map.get(SHARED_TAG)).isSameInstanceAs(shared);
+        assertThat(map.get(FALLBACK_TAG)).isSameInstanceAs(fallback);
+        assertThat(map.get(UNKNOWN_TAG)).isSameInstanceAs(unknown);
+        assertThat(map.get(getName(10)).getIntValue(ByteOrder.BIG_ENDIAN)).isEqualTo(10);
+
+        // Removing one of the entries with the same number keeps the other one.
+        assertThat(map.remove(SHARED_TAG)).isSameInstanceAs(shared);
+        assertThat(map.indexOf(100)).isEqualTo(2);
+        assertThat(map.getName(2)).isEqualTo(getName(10));
+        assertThat(map.remove(UNKNOWN_TAG)).isSameInstanceAs(unknown);
+        assertThat(map.getName(0)).isEqualTo(FALLBACK_TAG);
+    }
+
+    private static String getName(int index) {
+        return "Tag" + index;
+    }
+
+    private static ExifAttribute createAttribute(String name) {
+        return ExifAttribute.createULong(Integer.parseInt(name.substring(3)), ByteOrder.BIG_ENDIAN);
+    }
+}
@@ -0,0 +1,937 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.assertThrows;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Test {@link ExifInterfaceExtendedCore} on the JVM, with the images of the instrumented tests.
+ */
+@RunWith(JUnit4.class)
+public class ExifInterfaceExtendedCoreTest {
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testReadJpegFile() throws Throwable {
+        File imageFile = copyFromResourceToFile("jpeg_with_exif_byte_order_ii.jpg");
+        ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+        assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_MAKE)).isEqualTo("SAMSUNG");
+        assertThat(exif.getAttributeRange(ExifInterfaceExtendedCore.TAG_MAKE)[0])
+                .isEqualTo(160);
+        assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_MODEL)).isEqualTo("SM-N900S");
+        assertThat(exif.getAttributeInt(ExifInterfaceExtendedCore.TAG_IMAGE_WIDTH, 0))
+                .isEqualTo(640);
+        assertThat(exif.getAttributeInt(ExifInterfaceExtendedCore.TAG_IMAGE_LENGTH, 0))
+                .isEqualTo(480);
+        assertThat(exif.getRotationDegrees()).isEqualTo(90);
+        assertThat(exif.getThumbnailRange()).asList().containsExactly(3500L, 6265L).inOrder();
+        assertThat(exif.getThumbnailBytes()).hasLength(6265);
+
+        try (InputStream in = new ByteArrayInputStream(Files.readAllBytes(imageFile.toPath()))) {
+            ExifInterfaceExtendedCore streamExif = new ExifInterfaceExtendedCore(in);
+            assertThat(streamExif.getAttribute(ExifInterfaceExtendedCore.TAG_MAKE))
+                    .isEqualTo("SAMSUNG");
+            // The thumbnail is kept in memory since the stream can't be read again.
+            assertThat(streamExif.getThumbnailBytes()).isEqualTo(exif.getThumbnailBytes());
+        }
+    }
+
+    @Test
+    public void testSaveAttributes() throws Throwable {
+        File imageFile = copyFromResourceToFile("jpeg_with_exif_byte_order_ii.jpg");
+        ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_ARTIST, "artist");
+        exif.saveAttributes();
+
+        exif = new ExifInterfaceExtendedCore(imageFile);
+        assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_ARTIST)).isEqualTo("artist");
+        assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_MAKE)).isEqualTo("SAMSUNG");
+
+        try (InputStream in = Files.newInputStream(imageFile.toPath())) {
+            ExifInterfaceExtendedCore streamExif = new ExifInterfaceExtendedCore(in);
+            // Streams can't be written back to.
+            assertThrows(IOException.class, streamExif::saveAttributes);
+        }
+    }
+
+    @Test
+    public void testSaveAttributesInPlace() throws Throwable {
+        for (String name : new String[] {
+                "jpeg_with_exif_byte_order_ii.jpg", "webp_with_exif.webp" }) {
+            final File imageFile = copyFromResourceToFile(name);
+            final byte[] original = Files.readAllBytes(imageFile.toPath());
+            ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+            final long exifOffset = exif.getAttributeRange(ExifInterfaceExtendedCore.TAG_MAKE)[0];
+            exif.setAttribute(ExifInterfaceExtendedCore.TAG_ORIENTATION, "3");
+            exif.saveAttributes();
+            exif.setAttribute(ExifInterfaceExtendedCore.TAG_ARTIST, "artist");
+            exif.saveAttributes();
+
+            // Only the EXIF data, which is less than 64 KiB in size, has been overwritten.
+            final byte[] saved = Files.readAllBytes(imageFile.toPath());
+            assertThat(saved.length).isEqualTo(original.length);
+            for (int i = 0; i < saved.length; i++) {
+                if (saved[i] != original[i]) {
+                    assertThat(Math.abs(i - exifOffset)).isLessThan(0x10000L);
+                }
+            }
+            exif = new ExifInterfaceExtendedCore(imageFile);
+            assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_ORIENTATION))
+                    .isEqualTo("3");
+            assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_ARTIST))
+                    .isEqualTo("artist");
+            assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_MAKE)).isEqualTo("SAMSUNG");
+            assertThat(exif.getThumbnailBytes()).isNotNull();
+        }
+
+        // The file is rewritten if the new EXIF data doesn't fit.
+        final File imageFile = copyFromResourceToFile("jpeg_with_exif_byte_order_mm.jpg");
+        final long length = imageFile.length();
+        ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_ARTIST, "artist");
+        exif.saveAttributes();
+        assertThat(imageFile.length()).isGreaterThan(length);
+        exif = new ExifInterfaceExtendedCore(imageFile);
+        assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_ARTIST)).isEqualTo("artist");
+        assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_MAKE)).isEqualTo("LGE");
+    }
+
+    @Test
+    public void testSaveAttributesInPlaceRestoresOnFailure() throws Throwable {
+        final File imageFile = copyFromResourceToFile("jpeg_with_exif_byte_order_ii.jpg");
+        final byte[] original = Files.readAllBytes(imageFile.toPath());
+        // Syncing the new EXIF data to the storage device fails once.
+        final ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile) {
+            @Override
+            protected FileChannel reopenFileChannel() throws IOException {
+                return new FailingFileChannel(super.reopenFileChannel());
+            }
+        };
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_ORIENTATION, "3");
+        final IOException e = assertThrows(IOException.class, exif::saveAttributes);
+        assertThat(e).hasMessageThat().contains("the original data has been restored");
+
+        assertThat(Files.readAllBytes(imageFile.toPath())).isEqualTo(original);
+        assertThat(new ExifInterfaceExtendedCore(imageFile).getRotationDegrees()).isEqualTo(90);
+    }
+
+    @Test
+    public void testPatchAttributes() throws Throwable {
+        final String dateTime = "2021:02:03 04:05:06";
+        for (String name : new String[] { "jpeg_with_exif_byte_order_ii.jpg",
+                "png_with_exif_byte_order_ii.png", "dng_with_exif_with_xmp.dng" }) {
+            final File imageFile = copyFromResourceToFile(name);
+            final byte[] original = Files.readAllBytes(imageFile.toPath());
+            ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+            final long[] range =
+                    exif.getAttributeRange(ExifInterfaceExtendedCore.TAG_DATETIME_ORIGINAL);
+            exif.setAttribute(ExifInterfaceExtendedCore.TAG_DATETIME_ORIGINAL, dateTime);
+            exif.patchAttributes();
+            assertThat(exif.getAttributeRange(ExifInterfaceExtendedCore.TAG_DATETIME_ORIGINAL))
+                    .isEqualTo(range);
+
+            // Only the value and, for PNG, the CRC of the chunk have been overwritten.
+            final byte[] patched = Files.readAllBytes(imageFile.toPath());
+            assertThat(patched.length).isEqualTo(original.length);
+            int changedBytes = 0;
+            for (int i = 0; i < patched.length; i++) {
+                if (patched[i] != original[i]) {
+                    changedBytes++;
+                }
+            }
+            assertThat(changedBytes).isAtMost(dateTime.length() + 4);
+            exif = new ExifInterfaceExtendedCore(imageFile);
+            assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_DATETIME_ORIGINAL))
+                    .isEqualTo(dateTime);
+        }
+
+        final File imageFile = copyFromResourceToFile("webp_with_exif.webp");
+        final byte[] original = Files.readAllBytes(imageFile.toPath());
+        ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+        exif.rotate(90);
+        exif.patchAttributes();
+        exif = new ExifInterfaceExtendedCore(imageFile);
+        assertThat(exif.getAttributeInt(ExifInterfaceExtendedCore.TAG_ORIENTATION, 0))
+                .isEqualTo(ExifInterfaceExtendedCore.ORIENTATION_ROTATE_180);
+
+        // Values of a different size are not written.
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_MAKE, "MANUFACTURER");
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_ORIENTATION, "1");
+        assertThrows(IOException.class, exif::patchAttributes);
+        exif = new ExifInterfaceExtendedCore(imageFile);
+        assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_MAKE)).isEqualTo("SAMSUNG");
+        assertThat(exif.getAttributeInt(ExifInterfaceExtendedCore.TAG_ORIENTATION, 0))
+                .isEqualTo(ExifInterfaceExtendedCore.ORIENTATION_ROTATE_180);
+        assertThat(Files.readAllBytes(imageFile.toPath()).length).isEqualTo(original.length);
+    }
+
+    @Test
+    public void testApplyOrientation() throws Throwable {
+        for (String name : new String[] {
+                "jpeg_with_exif_byte_order_ii.jpg", "png_with_exif_byte_order_ii.png" }) {
+            final File imageFile = copyFromResourceToFile(name);
+            final byte[] original = Files.readAllBytes(imageFile.toPath());
+            ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+            exif.rotate(90);
+            exif.setAttribute(ExifInterfaceExtendedCore.TAG_ARTIST, "artist");
+            exif.applyOrientation();
+
+            // Only the orientation and, for PNG, the CRC of the chunk have been overwritten.
+            final byte[] saved = Files.readAllBytes(imageFile.toPath());
+            assertThat(saved.length).isEqualTo(original.length);
+            int changedBytes = 0;
+            for (int i = 0; i < saved.length; i++) {
+                if (saved[i] != original[i]) {
+                    changedBytes++;
+                }
+            }
+            assertThat(changedBytes).isAtMost(2 + 4);
+            exif = new ExifInterfaceExtendedCore(imageFile);
+            assertThat(exif.getAttributeInt(ExifInterfaceExtendedCore.TAG_ORIENTATION, 0))
+                    .isEqualTo(ExifInterfaceExtendedCore.ORIENTATION_ROTATE_180);
+            assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_ARTIST)).isNull();
+        }
+
+        // Without an orientation entry the attributes are saved.
+        final File imageFile = copyFromResourceToFile("jpeg_with_exif_byte_order_mm.jpg");
+        ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+        assertThat(exif.getAttributeRange(ExifInterfaceExtendedCore.TAG_ORIENTATION)[0])
+                .isEqualTo(-1);
+        exif.resetOrientation();
+        exif.flipHorizontally();
+        exif.applyOrientation();
+        exif = new ExifInterfaceExtendedCore(imageFile);
+        assertThat(exif.getAttributeInt(ExifInterfaceExtendedCore.TAG_ORIENTATION, 0))
+                .isEqualTo(ExifInterfaceExtendedCore.ORIENTATION_FLIP_HORIZONTAL);
+    }
+
+    @Test
+    public void testSaveAttributesAtomically() throws Throwable {
+        final File imageFile = copyFromResourceToFile("jpeg_with_exif_byte_order_ii.jpg");
+        final boolean isPosix = imageFile.toPath().getFileSystem()
+                .supportedFileAttributeViews().contains("posix");
+        final Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-rw-r--");
+        if (isPosix) {
+            Files.setPosixFilePermissions(imageFile.toPath(), permissions);
+        }
+        final ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_ARTIST, "artist");
+        exif.saveAttributes(ExifInterfaceExtendedCore.SAVE_MODE_ATOMIC_RENAME);
+        assertThrows(IllegalArgumentException.class, () -> exif.saveAttributes(2));
+
+        // The new file keeps the permissions of the original file instead of those of a new one.
+        if (isPosix) {
+            assertThat(Files.getPosixFilePermissions(imageFile.toPath()))
+                    .containsExactlyElementsIn(permissions);
+        }
+
+        // The temporary file has been renamed to the original file.
+        final File[] files = imageFile.getParentFile().listFiles();
+        assertThat(files).asList().containsExactly(imageFile);
+        final ExifInterfaceExtendedCore savedExif = new ExifInterfaceExtendedCore(imageFile);
+        assertThat(savedExif.getAttribute(ExifInterfaceExtendedCore.TAG_ARTIST))
+                .isEqualTo("artist");
+        assertThat(savedExif.getAttribute(ExifInterfaceExtendedCore.TAG_MAKE))
+                .isEqualTo("SAMSUNG");
+        assertThat(savedExif.getThumbnailBytes()).isNotNull();
+    }
+
+    @Test
+    public void testSaveAttributesWithPadding() throws Throwable {
+        final File imageFile = copyFromResourceToFile("jpeg_with_exif_byte_order_mm.jpg");
+        ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_ARTIST, "artist");
+        exif.saveAttributes(ExifInterfaceExtendedCore.SAVE_MODE_REWRITE, 1024);
+        assertThrows(IllegalArgumentException.class,
+                () -> exif.saveAttributes(ExifInterfaceExtendedCore.SAVE_MODE_REWRITE, -1));
+
+        // Changes which fit into the padding are saved in place.
+        final long length = imageFile.length();
+        ExifInterfaceExtendedCore savedExif = new ExifInterfaceExtendedCore(imageFile);
+        final char[] copyright = new char[256];
+        Arrays.fill(copyright, 'c');
+        savedExif.setAttribute(ExifInterfaceExtendedCore.TAG_COPYRIGHT, new String(copyright));
+        savedExif.saveAttributes();
+        assertThat(imageFile.length()).isEqualTo(length);
+        savedExif = new ExifInterfaceExtendedCore(imageFile);
+        assertThat(savedExif.getAttribute(ExifInterfaceExtendedCore.TAG_COPYRIGHT))
+                .isEqualTo(new String(copyright));
+        assertThat(savedExif.getAttribute(ExifInterfaceExtendedCore.TAG_ARTIST))
+                .isEqualTo("artist");
+
+        // The XMP packet of a separate APP1 segment is overwritten using its padding.
+        final File xmpFile = copyFromResourceToFile("jpeg_with_exif_with_xmp.jpg");
+        final long xmpFileLength = xmpFile.length();
+        ExifInterfaceExtendedCore xmpExif = new ExifInterfaceExtendedCore(xmpFile);
+        final String xmp = new String(xmpExif.getAttributeBytes(ExifInterfaceExtendedCore.TAG_XMP),
+                StandardCharsets.UTF_8);
+        final String changedXmp = xmp.replace("<x:xmpmeta", "<!-- changed --><x:xmpmeta");
+        xmpExif.setAttribute(ExifInterfaceExtendedCore.TAG_XMP, changedXmp);
+        xmpExif.saveAttributes();
+        assertThat(xmpFile.length()).isEqualTo(xmpFileLength);
+        xmpExif = new ExifInterfaceExtendedCore(xmpFile);
+        final byte[] savedXmp = xmpExif.getAttributeBytes(ExifInterfaceExtendedCore.TAG_XMP);
+        assertThat(savedXmp.length).isEqualTo(xmp.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(new String(savedXmp, StandardCharsets.UTF_8)).contains("<!-- changed -->");
+    }
+
+    @Test
+    public void testPngScanMode() throws Throwable {
+        // The eXIf chunk of this image is stored after the image data.
+        File imageFile = copyFromResourceToFile("png_with_exif_byte_order_ii.png");
+        try (InputStream in = Files.newInputStream(imageFile.toPath())) {
+            ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(in,
+                    ExifInterfaceExtendedCore.STREAM_TYPE_FULL_IMAGE_DATA,
+                    ExifInterfaceExtendedCore.PNG_SCAN_MODE_HEADER_AND_TRAILER);
+            assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_MAKE)).isNull();
+        }
+        ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile,
+                ExifInterfaceExtendedCore.PNG_SCAN_MODE_HEADER_AND_TRAILER);
+        assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_MAKE)).isEqualTo("SAMSUNG");
+
+        // Saving would discard the skipped eXIf chunk, so it fails and keeps the file as it is.
+        final byte[] original = Files.readAllBytes(imageFile.toPath());
+        final ExifInterfaceExtendedCore headerExif = new ExifInterfaceExtendedCore(imageFile,
+                ExifInterfaceExtendedCore.PNG_SCAN_MODE_HEADER);
+        assertThat(headerExif.getAttribute(ExifInterfaceExtendedCore.TAG_MAKE)).isNull();
+        headerExif.setAttribute(ExifInterfaceExtendedCore.TAG_ARTIST, "artist");
+        assertThrows(IOException.class, headerExif::saveAttributes);
+        assertThat(Files.readAllBytes(imageFile.toPath())).isEqualTo(original);
+
+        exif = new ExifInterfaceExtendedCore(imageFile);
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_ARTIST, "artist");
+        exif.saveAttributes();
+        exif = new ExifInterfaceExtendedCore(imageFile);
+        assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_ARTIST)).isEqualTo("artist");
+        assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_MAKE)).isEqualTo("SAMSUNG");
+
+        // Without an eXIf chunk after the image data, the skipped chunks are copied.
+        final File fileWithoutExif = copyFromResourceToFile("png_without_exif.png");
+        final long length = fileWithoutExif.length();
+        exif = new ExifInterfaceExtendedCore(fileWithoutExif,
+                ExifInterfaceExtendedCore.PNG_SCAN_MODE_HEADER);
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_ARTIST, "artist");
+        exif.saveAttributes();
+        exif = new ExifInterfaceExtendedCore(fileWithoutExif);
+        assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_ARTIST)).isEqualTo("artist");
+        assertThat(fileWithoutExif.length()).isGreaterThan(length);
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExifInterfaceExtendedCore(imageFile, 3));
+    }
+
+    @Test
+    public void testGetSetDateTime() throws Throwable {
+        File imageFile = copyFromResourceToFile("jpeg_with_datetime_tag_primary_format.jpg");
+        final ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+        // "2016:01:29 18:32:27" with the sub-seconds "100000" and the offset "+09:00"
+        final long expectedDateTime = 1454027547000L + 100L + 32400000L;
+        assertThat(exif.getDateTime()).isEqualTo(expectedDateTime);
+        assertThat(exif.getDateTimeOriginal()).isEqualTo(expectedDateTime);
+        assertThat(exif.getGpsDateTime()).isEqualTo(1454027547000L + 32400000L);
+
+        // The values are parsed without shared state, so concurrent calls don't interfere.
+        final Thread[] threads = new Thread[4];
+        final Long[][] results = new Long[threads.length][];
+        for (int i = 0; i < threads.length; i++) {
+            final Long[] result = results[i] = new Long[1000];
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < result.length; j++) {
+                    result[j] = exif.getDateTimeOriginal();
+                }
+            });
+            threads[i].start();
+        }
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+            assertThat(new HashSet<>(Arrays.asList(results[i])))
+                    .containsExactly(expectedDateTime);
+        }
+
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_DATETIME, "2020-01-01 00:00:00");
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_SUBSEC_TIME, "5");
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_OFFSET_TIME, "-01:30");
+        assertThat(exif.getDateTime()).isEqualTo(1577836800000L + 500L + 5400000L);
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_OFFSET_TIME, "+ab:cd");
+        assertThat(exif.getDateTime()).isNull();
+
+        exif.setDateTime(1689328448123L);
+        assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_DATETIME))
+                .isEqualTo("2023:07:14 09:54:08");
+        assertThat(exif.getAttribute(ExifInterfaceExtendedCore.TAG_SUBSEC_TIME)).isEqualTo("123");
+    }
+
+    @Test
+    public void testImageFormatRegistry() {
+        final ImageFormatRegistry registry = new ImageFormatRegistry();
+        registry.register(ExifInterfaceExtendedCore.IMAGE_TYPE_PNG, new TestFormatHandler(0),
+                'x');
+        registry.register(ExifInterfaceExtendedCore.IMAGE_TYPE_WEBP, new TestFormatHandler(1));
+        registry.register(ExifInterfaceExtendedCore.IMAGE_TYPE_JPEG, new TestFormatHandler(1),
+                'x');
+        assertThrows(IllegalArgumentException.class, () -> registry.register(
+                ExifInterfaceExtendedCore.IMAGE_TYPE_PNG, new TestFormatHandler(0)));
+
+        // Formats registered for the first byte are compared before the ones for any byte.
+        assertThat(registry.detect(new byte[] {'x', 0}))
+                .isEqualTo(ExifInterfaceExtendedCore.IMAGE_TYPE_PNG);
+        assertThat(registry.detect(new byte[] {'x', 1}))
+                .isEqualTo(ExifInterfaceExtendedCore.IMAGE_TYPE_JPEG);
+        assertThat(registry.detect(new byte[] {'y', 1}))
+                .isEqualTo(ExifInterfaceExtendedCore.IMAGE_TYPE_WEBP);
+        assertThat(registry.detect(new byte[] {'y', 0}))
+                .isEqualTo(ExifInterfaceExtendedCore.IMAGE_TYPE_UNKNOWN);
+        assertThat(registry.getHandler(ExifInterfaceExtendedCore.IMAGE_TYPE_WEBP)).isNotNull();
+        assertThat(registry.getHandler(ExifInterfaceExtendedCore.IMAGE_TYPE_RAF)).isNull();
+    }
+
+    @Test
+    public void testProbe() throws Throwable {
+        ImageInfo info = ExifInterfaceExtendedCore.probe(
+                copyFromResourceToFile("jpeg_with_exif_byte_order_ii.jpg"));
+        assertThat(info).isNotNull();
+        assertThat(info.getMimeType()).isEqualTo("image/jpeg");
+        assertThat(info.getWidth()).isEqualTo(640);
+        assertThat(info.getHeight()).isEqualTo(480);
+        assertThat(info.getOrientation())
+                .isEqualTo(ExifInterfaceExtendedCore.ORIENTATION_ROTATE_90);
+
+        try (InputStream in = new ByteArrayInputStream(Files.readAllBytes(
+                copyFromResourceToFile("webp_with_exif.webp").toPath()))) {
+            info = ExifInterfaceExtendedCore.probe(in);
+        }
+        assertThat(info).isNotNull();
+        assertThat(info.getMimeType()).isEqualTo("image/webp");
+        assertThat(info.getWidth()).isEqualTo(640);
+        assertThat(info.getHeight()).isEqualTo(480);
+        assertThat(info.getOrientation())
+                .isEqualTo(ExifInterfaceExtendedCore.ORIENTATION_ROTATE_90);
+
+        info = ExifInterfaceExtendedCore.probe(copyFromResourceToFile("png_without_exif.png"));
+        assertThat(info).isNotNull();
+        assertThat(info.getMimeType()).isEqualTo("image/png");
+        assertThat(info.getWidth()).isEqualTo(480);
+        assertThat(info.getHeight()).isEqualTo(640);
+        assertThat(info.getOrientation())
+                .isEqualTo(ExifInterfaceExtendedCore.ORIENTATION_UNDEFINED);
+
+        info = ExifInterfaceExtendedCore.probe(copyFromResourceToFile("heic_with_exif.heic"));
+        assertThat(info).isNotNull();
+        assertThat(info.getMimeType()).isEqualTo("image/heic");
+        assertThat(info.getWidth()).isEqualTo(1920);
+        assertThat(info.getHeight()).isEqualTo(1080);
+
+        try (InputStream in = new ByteArrayInputStream(new byte[16])) {
+            assertThat(ExifInterfaceExtendedCore.probe(in)).isNull();
+        }
+    }
+
+    @Test
+    public void testIccProfile() throws Throwable {
+        final byte[] profile = new byte[1000];
+        for (int i = 0; i < profile.length; i++) {
+            profile[i] = (byte) (i * 7);
+        }
+
+        // A JPEG image with the profile split over two APP2 segments stored in reverse order
+        final byte[] jpeg = Files.readAllBytes(
+                copyFromResourceToFile("jpeg_with_exif_byte_order_ii.jpg").toPath());
+        final ByteArrayOutputStream jpegOut = new ByteArrayOutputStream();
+        jpegOut.write(jpeg, 0, 2);
+        writeIccProfileApp2(jpegOut, profile, 600, profile.length, 2);
+        writeIccProfileApp2(jpegOut, profile, 0, 600, 1);
+        jpegOut.write(jpeg, 2, jpeg.length - 2);
+        final File jpegFile = tempFolder.newFile("jpeg_with_split_icc.jpg");
+        Files.write(jpegFile.toPath(), jpegOut.toByteArray());
+
+        ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(jpegFile);
+        assertThat(exif.hasIccProfile()).isTrue();
+        assertThat(exif.getIccProfileRange()).isNull();
+        assertThat(exif.getIccProfile()).isEqualTo(profile);
+        try (InputStream in = new ByteArrayInputStream(jpegOut.toByteArray())) {
+            assertThat(new ExifInterfaceExtendedCore(in).getIccProfile()).isEqualTo(profile);
+        }
+
+        // Saving in place doesn't move the profile, it is still read from the file afterwards.
+        exif = new ExifInterfaceExtendedCore(jpegFile);
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_ORIENTATION, "3");
+        exif.saveAttributes();
+        assertThat(jpegFile.length()).isEqualTo(jpegOut.size());
+        assertThat(exif.getIccProfile()).isEqualTo(profile);
+
+        // A PNG image with the compressed profile after the IHDR chunk
+        final File pngWithoutIccFile = copyFromResourceToFile("png_without_exif.png");
+        final byte[] png = Files.readAllBytes(pngWithoutIccFile.toPath());
+        final ByteArrayOutputStream chunkData = new ByteArrayOutputStream();
+        chunkData.write("ICC Profile\0\0".getBytes(StandardCharsets.US_ASCII));
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(chunkData)) {
+            deflater.write(profile);
+        }
+        final byte[] data = chunkData.toByteArray();
+        final int ihdrEnd = 8 + 4 + 4 + 13 + 4;
+        final ByteBuffer chunk = ByteBuffer.allocate(4 + 4 + data.length + 4);
+        chunk.putInt(data.length).put("iCCP".getBytes(StandardCharsets.US_ASCII)).put(data);
+        final CRC32 crc = new CRC32();
+        crc.update(chunk.array(), 4, 4 + data.length);
+        chunk.putInt((int) crc.getValue());
+        final ByteArrayOutputStream pngOut = new ByteArrayOutputStream();
+        pngOut.write(png, 0, ihdrEnd);
+        pngOut.write(chunk.array());
+        pngOut.write(png, ihdrEnd, png.length - ihdrEnd);
+        final File pngFile = tempFolder.newFile("png_with_icc.png");
+        Files.write(pngFile.toPath(), pngOut.toByteArray());
+
+        exif = new ExifInterfaceExtendedCore(pngFile);
+        assertThat(exif.hasIccProfile()).isTrue();
+        final int compressedLength = data.length - 13;
+        assertThat(exif.getIccProfileRange())
+                .isEqualTo(new long[] { ihdrEnd + 8 + 13, compressedLength });
+        assertThat(exif.getIccProfile()).isEqualTo(profile);
+        try (InputStream in = new ByteArrayInputStream(pngOut.toByteArray())) {
+            assertThat(new ExifInterfaceExtendedCore(in).getIccProfile()).isEqualTo(profile);
+        }
+
+        exif = new ExifInterfaceExtendedCore(pngWithoutIccFile);
+        assertThat(exif.hasIccProfile()).isFalse();
+        assertThat(exif.getIccProfileRange()).isNull();
+        assertThat(exif.getIccProfile()).isNull();
+
+        // The profile is kept in memory when saving moves its APP2 segments.
+        final File iccFile =
+                copyFromResourceToFile("jpeg_with_icc_with_exif_with_extended_xmp.jpg");
+        final byte[] iccProfile = new ExifInterfaceExtendedCore(iccFile).getIccProfile();
+        assertThat(iccProfile).isNotNull();
+        exif = new ExifInterfaceExtendedCore(iccFile);
+        final char[] artist = new char[4096];
+        Arrays.fill(artist, 'a');
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_ARTIST, new String(artist));
+        final long length = iccFile.length();
+        exif.saveAttributes();
+        assertThat(iccFile.length()).isGreaterThan(length);
+        assertThat(exif.getIccProfile()).isEqualTo(iccProfile);
+        assertThat(new ExifInterfaceExtendedCore(iccFile).getIccProfile()).isEqualTo(iccProfile);
+    }
+
+    @Test
+    public void testExtendedXmp() throws Throwable {
+        final File imageFile =
+                copyFromResourceToFile("jpeg_with_icc_with_exif_with_extended_xmp.jpg");
+        ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+        assertThat(exif.hasExtendedXmp()).isTrue();
+        ByteBuffer packet = exif.getExtendedXmp();
+        assertThat(packet).isNotNull();
+        assertThat(packet.remaining()).isEqualTo(25984);
+        final byte[] start = new byte[10];
+        packet.get(start);
+        assertThat(new String(start, StandardCharsets.US_ASCII)).isEqualTo("<x:xmpmeta");
+
+        final byte[] bytes = Files.readAllBytes(imageFile.toPath());
+        try (InputStream in = new ByteArrayInputStream(bytes)) {
+            packet = new ExifInterfaceExtendedCore(in).getExtendedXmp();
+        }
+        assertThat(packet).isNotNull();
+        assertThat(packet.remaining()).isEqualTo(25984);
+
+        // The packet must match the MD5 digest in its GUID.
+        final int offsetInChunk = 10000;
+        bytes[offsetInChunk] ^= 1;
+        final File corruptedFile = tempFolder.newFile("jpeg_with_corrupted_extended_xmp.jpg");
+        Files.write(corruptedFile.toPath(), bytes);
+        exif = new ExifInterfaceExtendedCore(corruptedFile);
+        assertThat(exif.hasExtendedXmp()).isTrue();
+        assertThat(exif.getExtendedXmp()).isNull();
+    }
+
+    @Test
+    public void testPhotoshopImageResources() throws Throwable {
+        final File imageFile =
+                copyFromResourceToFile("jpeg_with_exif_with_photoshop_with_xmp.jpg");
+        final ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+        final List<PhotoshopImageResource> resources = exif.getPhotoshopImageResources();
+        assertThat(resources).hasSize(21);
+        final PhotoshopImageResource iptc = resources.get(0);
+        assertThat(iptc.getId()).isEqualTo(PhotoshopImageResource.ID_IPTC_NAA);
+        assertThat(iptc.getOffset()).isEqualTo(6967);
+        assertThat(iptc.getLength()).isEqualTo(514);
+
+        assertThat(exif.getIptcString(IptcDataSet.CAPTION_ABSTRACT))
+                .isEqualTo("IPTC CONTENT PANEL: DESCRIPTION");
+        assertThat(exif.getIptcString(IptcDataSet.DATE_CREATED)).isEqualTo("20071119");
+        final List<String> keywords = new ArrayList<>();
+        for (IptcDataSet dataSet : exif.getIptcDataSets()) {
+            if (dataSet.getTag() == IptcDataSet.RECORD_VERSION) {
+                assertThat(dataSet.getLongValue()).isEqualTo(2);
+            } else if (dataSet.getTag() == IptcDataSet.KEYWORDS) {
+                keywords.add(dataSet.getStringValue());
+            }
+        }
+        assertThat(keywords).containsExactly("IPTC CONTENT PANEL:", "KEYWORDS").inOrder();
+
+        try (InputStream in = new ByteArrayInputStream(Files.readAllBytes(imageFile.toPath()))) {
+            final ExifInterfaceExtendedCore streamExif = new ExifInterfaceExtendedCore(in);
+            assertThat(streamExif.getPhotoshopImageResources()).hasSize(21);
+            assertThat(streamExif.getIptcDataSets()).hasSize(exif.getIptcDataSets().size());
+        }
+
+        // The resources are kept in memory when saving moves their APP13 segment.
+        final byte[] iptcData =
+                exif.getPhotoshopImageResourceData(PhotoshopImageResource.ID_IPTC_NAA);
+        final File savedFile = tempFolder.newFile("jpeg_with_photoshop_saved.jpg");
+        Files.copy(imageFile.toPath(), savedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        final ExifInterfaceExtendedCore savedExif = new ExifInterfaceExtendedCore(savedFile);
+        final char[] artist = new char[4096];
+        Arrays.fill(artist, 'a');
+        savedExif.setAttribute(ExifInterfaceExtendedCore.TAG_ARTIST, new String(artist));
+        savedExif.saveAttributes();
+        assertThat(savedFile.length()).isGreaterThan(imageFile.length());
+        final List<PhotoshopImageResource> savedResources = savedExif.getPhotoshopImageResources();
+        assertThat(savedResources).hasSize(resources.size());
+        assertThat(savedResources.get(0).getId()).isEqualTo(PhotoshopImageResource.ID_IPTC_NAA);
+        assertThat(savedExif.getPhotoshopImageResourceData(PhotoshopImageResource.ID_IPTC_NAA))
+                .isEqualTo(iptcData);
+        assertThat(savedExif.getIptcString(IptcDataSet.CAPTION_ABSTRACT))
+                .isEqualTo("IPTC CONTENT PANEL: DESCRIPTION");
+
+        final ExifInterfaceExtendedCore withoutResources = new ExifInterfaceExtendedCore(
+                copyFromResourceToFile("jpeg_with_exif_byte_order_ii.jpg"));
+        assertThat(withoutResources.getPhotoshopImageResources()).isEmpty();
+        assertThat(withoutResources.getIptcDataSets()).isEmpty();
+    }
+
+    @Test
+    public void testXmpIndex() throws Throwable {
+        final String namespaceXmp = "http://ns.adobe.com/xap/1.0/";
+        final String namespaceDc = "http://purl.org/dc/elements/1.1/";
+        final ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(
+                copyFromResourceToFile("jpeg_with_exif_with_photoshop_with_xmp.jpg"));
+        final XmpIndex index = exif.getXmpIndex();
+        assertThat(index).isNotNull();
+        assertThat(exif.getXmpIndex()).isSameInstanceAs(index);
+        assertThat(index.getValue(namespaceXmp, "CreatorTool"))
+                .isEqualTo("Adobe Photoshop CS2 Windows");
+        assertThat(index.getValue(namespaceDc, "subject[2]")).isEqualTo("KEYWORDS");
+        assertThat(index.getValue("http://ns.adobe.com/xap/1.0/mm/",
+                "DerivedFrom/stRef:documentID"))
+                .isEqualTo("uuid:3A6DF2049244DE11AA90FB7B95BAE63C");
+        assertThat(index.getPaths(namespaceDc)).containsAtLeast("title[1]", "subject[1]");
+        assertThat(index.indexOf(namespaceXmp, "Rating")).isEqualTo(-1);
+        assertThat(index.getValue(namespaceXmp, "Rating")).isNull();
+
+        final byte[] xmp = ("<x:xmpmeta xmlns:x=\"adobe:ns:meta/\">"
+                + "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\">"
+                + "<rdf:Description xmlns:xmp=\"" + namespaceXmp + "\" xmp:Rating=\"4\">"
+                + "<xmp:Label>R&amp;D &#x263A;</xmp:Label>"
+                + "</rdf:Description></rdf:RDF></x:xmpmeta>").getBytes(StandardCharsets.UTF_8);
+        final XmpIndex built = XmpIndex.build(xmp);
+        assertThat(built.size()).isEqualTo(2);
+        assertThat(built.getValue(namespaceXmp, "Rating")).isEqualTo("4");
+        assertThat(built.getValue(namespaceXmp, "Label")).isEqualTo("R&D \u263A");
+
+        // Packets written by Adobe Camera Raw and Photoshop, with attribute and element values
+        final String namespaceXmpMm = "http://ns.adobe.com/xap/1.0/mm/";
+        final String namespaceCrs = "http://ns.adobe.com/camera-raw-settings/1.0/";
+        final XmpIndex dngIndex = XmpIndex.build(
+                Files.readAllBytes(copyFromResourceToFile("dng_xmp.xml").toPath()));
+        assertThat(dngIndex.size()).isEqualTo(133);
+        assertThat(dngIndex.getValue(namespaceXmp, "CreatorTool"))
+                .isEqualTo("Adobe Photoshop Camera Raw 9.3.1 (Macintosh)");
+        assertThat(dngIndex.getValue(namespaceCrs, "Temperature")).isEqualTo("3850");
+        assertThat(dngIndex.getValue(namespaceDc, "description[1]")).isEqualTo("Camera FV-5");
+        assertThat(dngIndex.getValue(namespaceXmpMm, "History[1]/stEvt:action"))
+                .isEqualTo("derived");
+        assertThat(dngIndex.getValue(namespaceXmpMm, "History[2]/stEvt:when"))
+                .isEqualTo("2016-01-28T09:17:34+01:00");
+        assertThat(dngIndex.getValue(namespaceXmpMm, "History[3]/stEvt:action")).isNull();
+        assertThat(dngIndex.getValue(namespaceCrs, "ToneCurve[5]")).isEqualTo("192, 196");
+        assertThat(dngIndex.getValue(namespaceCrs, "ToneCurve[7]")).isNull();
+
+        final XmpIndex jpegIndex = XmpIndex.build(
+                Files.readAllBytes(copyFromResourceToFile("jpeg_xmp.xml").toPath()));
+        assertThat(jpegIndex.size()).isEqualTo(170);
+        assertThat(jpegIndex.getValue("http://ns.adobe.com/exif/1.0/", "ISOSpeedRatings[1]"))
+                .isEqualTo("800");
+        assertThat(jpegIndex.getPaths("http://ns.adobe.com/tiff/1.0/"))
+                .containsAtLeast("BitsPerSample[1]", "BitsPerSample[2]", "BitsPerSample[3]")
+                .inOrder();
+        assertThat(jpegIndex.getValue(namespaceXmpMm, "History[2]/stEvt:softwareAgent"))
+                .isEqualTo("Adobe Photoshop Camera Raw 9.3.1 (Macintosh)");
+
+        final XmpIndex jpegIndex2 = XmpIndex.build(
+                Files.readAllBytes(copyFromResourceToFile("jpeg_xmp_2.xml").toPath()));
+        assertThat(jpegIndex2.size()).isEqualTo(54);
+        assertThat(jpegIndex2.getValue("http://iptc.org/std/Iptc4xmpCore/1.0/xmlns/",
+                "CreatorContactInfo/Iptc4xmpCore:CiAdrCity"))
+                .isEqualTo("IPTC CONTACT PANEL: CITY");
+        assertThat(jpegIndex2.getValue(namespaceDc, "subject[2]")).isEqualTo("KEYWORDS");
+        assertThat(jpegIndex2.getValue(namespaceXmpMm, "DerivedFrom/stRef:instanceID"))
+                .isEqualTo("uuid:973145939244DE11AA90FB7B95BAE63C");
+
+        exif.setAttribute(ExifInterfaceExtendedCore.TAG_XMP, null);
+        assertThat(exif.getXmpIndex()).isNull();
+    }
+
+    @Test
+    public void testVisitAttributes() throws Throwable {
+        final File imageFile = copyFromResourceToFile("jpeg_with_exif_byte_order_ii.jpg");
+        final ExifInterfaceExtendedCore exif = new ExifInterfaceExtendedCore(imageFile);
+        final List<int[]> exifVersions = new ArrayList<>();
+        final List<Long> orientationOffsets = new ArrayList<>();
+        ExifInterfaceExtendedCore.visitAttributes(imageFile,
+                (ifdType, tagNumber, format, numberOfComponents, valueOffset, valueReader) -> {
+                    if (ifdType == ExifVisitor.IFD_TYPE_EXIF && tagNumber == 0x9000) {
+                        exifVersions.add(new int[] { format, numberOfComponents });
+                    } else if (ifdType == ExifVisitor.IFD_TYPE_PRIMARY && tagNumber == 0x0112) {
+                        orientationOffsets.add(valueOffset);
+                    }
+                });
+        // Entries are reported with their stored format, not the format of the tag.
+        assertThat(exifVersions).hasSize(1);
+        assertThat(exifVersions.get(0)).asList().containsExactly(7, 4).inOrder();
+        assertThat(orientationOffsets).containsExactly(
+                exif.getAttributeRange(ExifInterfaceExtendedCore.TAG_ORIENTATION)[0]);
+
+        // An exception thrown by the visitor stops the parsing and is thrown again.
+        final IOException exception = new IOException("Stop visiting");
+        final int[] entries = new int[1];
+        final IOException thrown = assertThrows(IOException.class,
+                () -> ExifInterfaceExtendedCore.visitAttributes(imageFile,
+                        (ifdType, tagNumber, format, numberOfComponents, valueOffset,
+                                valueReader) -> {
+                            entries[0]++;
+                            throw exception;
+                        }));
+        assertThat(thrown).isSameInstanceAs(exception);
+        assertThat(entries[0]).isEqualTo(1);
+    }
+
+    @Test
+    public void testHeifParser() throws Throwable {
+        File heicFile = copyFromResourceToFile("heic_with_exif.heic");
+        try (InputStream in = new ByteArrayInputStream(Files.readAllBytes(heicFile.toPath()))) {
+            HeifParser parser = new HeifParser(new SeekableByteOrderedDataInputStream(in));
+            parser.parse();
+            // The Exif item starts with "Exif\0\0" before the TIFF header.
+            assertThat(parser.getExifOffset()).isEqualTo(3501);
+            assertThat(parser.getExifLength()).isEqualTo(220);
+            assertThat(parser.getXmpOffset()).isEqualTo(3721);
+            assertThat(parser.getXmpLength()).isEqualTo(3020);
+            // The primary item is a grid of tiles, its size is the one of the whole image.
+            assertThat(parser.getImageWidth()).isEqualTo(1920);
+            assertThat(parser.getImageHeight()).isEqualTo(1080);
+            assertThat(parser.getRotationDegrees()).isEqualTo(0);
+        }
+
+        File avifFile = copyFromResourceToFile("avif_with_exif.avif");
+        try (InputStream in = new ByteArrayInputStream(Files.readAllBytes(avifFile.toPath()))) {
+            HeifParser parser = new HeifParser(new SeekableByteOrderedDataInputStream(in));
+            parser.parse();
+            assertThat(parser.getExifOffset()).isEqualTo(433);
+            assertThat(parser.getExifLength()).isEqualTo(220);
+            assertThat(parser.getXmpOffset()).isEqualTo(653);
+            assertThat(parser.getXmpLength()).isEqualTo(3020);
+            assertThat(parser.getImageWidth()).isEqualTo(1920);
+            assertThat(parser.getImageHeight()).isEqualTo(1080);
+            assertThat(parser.getRotationDegrees()).isEqualTo(0);
+        }
+
+        // A file without a meta box isn't a HEIF file.
+        byte[] fileTypeBoxOnly = {0, 0, 0, 16, 'f', 't', 'y', 'p', 'h', 'e', 'i', 'c', 0, 0, 0, 0};
+        HeifParser parser = new HeifParser(
+                new SeekableByteOrderedDataInputStream(new ByteArrayInputStream(fileTypeBoxOnly)));
+        assertThrows(IOException.class, parser::parse);
+    }
+
+    private static final class TestFormatHandler implements ImageFormatHandler {
+
+        private final byte mSecondByte;
+
+        TestFormatHandler(int secondByte) {
+            mSecondByte = (byte) secondByte;
+        }
+
+        @Override
+        public boolean matches(@NonNull byte[] signature) {
+            return signature[1] == mSecondByte;
+        }
+
+        @Override
+        public void readAttributes(@NonNull ExifInterfaceExtendedCore exif,
+                @NonNull ByteOrderedDataInputStream in) {
+        }
+    }
+
+    // Delegates to the given channel, but fails to force its content the first time.
+    private static final class FailingFileChannel extends FileChannel {
+
+        private final FileChannel mChannel;
+        private boolean mHasFailed;
+
+        FailingFileChannel(FileChannel channel) {
+            mChannel = channel;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (!mHasFailed) {
+                mHasFailed = true;
+                throw new IOException("Failed to force");
+            }
+            mChannel.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return mChannel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return mChannel.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return mChannel.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return mChannel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return mChannel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            mChannel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return mChannel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            mChannel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target)
+                throws IOException {
+            return mChannel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count)
+                throws IOException {
+            return mChannel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return mChannel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return mChannel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return mChannel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return mChannel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return mChannel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            mChannel.close();
+        }
+    }
+
+    private static void writeIccProfileApp2(ByteArrayOutputStream out, byte[] profile, int from,
+            int to, int sequenceNumber) throws IOException {
+        final byte[] identifier = "ICC_PROFILE\0".getBytes(StandardCharsets.US_ASCII);
+        final int length = 2 + identifier.length + 2 + to - from;
+        out.write(new byte[] { (byte) 0xff, (byte) 0xe2, (byte) (length >> 8), (byte) length });
+        out.write(identifier);
+        out.write(new byte[] { (byte) sequenceNumber, 2 });
+        out.write(profile, from, to - from);
+    }
+
+    private File copyFromResourceToFile(String name) throws IOException {
+        File file = tempFolder.newFile(name);
+        try (InputStream in = getClass().getResourceAsStream("/" + name)) {
+            if (in == null) {
+                throw new IOException("Missing test image " + name);
+            }
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+}
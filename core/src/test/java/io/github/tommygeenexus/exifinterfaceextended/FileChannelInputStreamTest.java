@@ -0,0 +1,164 @@
+/*
+ * Copyright 2018 The Android Open Source Project
+ * Copyright 2020 Tom Geiselmann <tomgapplicationsdevelopment@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.tommygeenexus.exifinterfaceextended;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Test {@link FileChannelInputStream}.
+ */
+@RunWith(JUnit4.class)
+public class FileChannelInputStreamTest {
+
+    private static final int BUF_SIZE = ExifInterfaceExtendedUtils.BUF_SIZE;
+    // Three buffers and a bit, so reads can span buffer boundaries and hit the end of the file.
+    private static final int LENGTH = 3 * BUF_SIZE + 100;
+    private static final int START = 10;
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private byte[] mData;
+    private File mFile;
+
+    @Before
+    public void setUp() throws Exception {
+        mData = new byte[LENGTH];
+        for (int i = 0; i < mData.length; i++) {
+            mData[i] = (byte) (i * 31 + i / 256);
+        }
+        mFile = tempFolder.newFile("data.bin");
+        Files.write(mFile.toPath(), mData);
+    }
+
+    @Test
+    public void testRead() throws Throwable {
+        try (RandomAccessFile file = new RandomAccessFile(mFile, "r")) {
+            final FileChannel channel = file.getChannel();
+            channel.position(START);
+            final FileChannelInputStream in = new FileChannelInputStream(channel);
+
+            // Single bytes are read from the current position of the channel.
+            assertThat(in.read()).isEqualTo(mData[START] & 0xff);
+            assertThat(in.available()).isEqualTo(LENGTH - START - 1);
+
+            // A read spanning the end of the buffer is completed from the next buffer.
+            final int position = START + 1;
+            final int spanning = BUF_SIZE;
+            in.skip(BUF_SIZE - spanning / 2 - 1);
+            final byte[] bytes = new byte[spanning];
+            assertThat(in.read(bytes, 0, spanning)).isEqualTo(spanning);
+            final int expected = position + BUF_SIZE - spanning / 2 - 1;
+            assertThat(bytes).isEqualTo(Arrays.copyOfRange(mData, expected, expected + spanning));
+
+            // The channel position is never changed.
+            assertThat(channel.position()).isEqualTo(START);
+        }
+    }
+
+    @Test
+    public void testLargeReadBypassesBuffer() throws Throwable {
+        try (RandomAccessFile file = new RandomAccessFile(mFile, "r")) {
+            final FileChannel channel = file.getChannel();
+            final FileChannelInputStream in = new FileChannelInputStream(channel);
+            // Fill the buffer, then skip past it so the large read is not buffered.
+            assertThat(in.read()).isEqualTo(mData[0] & 0xff);
+            assertThat(in.skip(BUF_SIZE)).isEqualTo(BUF_SIZE);
+
+            final int offset = 3;
+            final byte[] bytes = new byte[2 * BUF_SIZE + offset];
+            assertThat(in.read(bytes, offset, 2 * BUF_SIZE)).isEqualTo(2 * BUF_SIZE);
+            assertThat(Arrays.copyOfRange(bytes, offset, bytes.length))
+                    .isEqualTo(Arrays.copyOfRange(mData, BUF_SIZE + 1, 3 * BUF_SIZE + 1));
+
+            // A large read at the end of the channel returns the bytes that are left.
+            final byte[] rest = new byte[2 * BUF_SIZE];
+            assertThat(in.read(rest, 0, rest.length)).isEqualTo(LENGTH - 3 * BUF_SIZE - 1);
+            assertThat(Arrays.copyOf(rest, LENGTH - 3 * BUF_SIZE - 1))
+                    .isEqualTo(Arrays.copyOfRange(mData, 3 * BUF_SIZE + 1, LENGTH));
+            assertThat(channel.position()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void testMarkResetAndSkip() throws Throwable {
+        try (RandomAccessFile file = new RandomAccessFile(mFile, "r")) {
+            final FileChannel channel = file.getChannel();
+            final FileChannelInputStream in = new FileChannelInputStream(channel);
+            assertThat(in.markSupported()).isTrue();
+            assertThat(in.skip(START)).isEqualTo(START);
+            in.mark(0);
+
+            // Seeking back past the buffer refills it from the marked position.
+            assertThat(in.skip(2 * BUF_SIZE)).isEqualTo(2 * BUF_SIZE);
+            assertThat(in.read()).isEqualTo(mData[START + 2 * BUF_SIZE] & 0xff);
+            in.reset();
+            assertThat(in.read()).isEqualTo(mData[START] & 0xff);
+            final byte[] bytes = new byte[16];
+            assertThat(in.read(bytes, 0, bytes.length)).isEqualTo(bytes.length);
+            assertThat(bytes).isEqualTo(Arrays.copyOfRange(mData, START + 1, START + 17));
+
+            // Skipping stops at the end of the channel, not skipping is a no-op.
+            assertThat(in.skip(0)).isEqualTo(0);
+            assertThat(in.skip(-1)).isEqualTo(0);
+            assertThat(in.skip(LENGTH)).isEqualTo(LENGTH - START - 17);
+            assertThat(in.available()).isEqualTo(0);
+            assertThat(channel.position()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void testEndOfChannel() throws Throwable {
+        try (RandomAccessFile file = new RandomAccessFile(mFile, "r")) {
+            final FileChannel channel = file.getChannel();
+            channel.position(LENGTH - 2);
+            final FileChannelInputStream in = new FileChannelInputStream(channel);
+
+            // A read past the end returns the remaining bytes, then -1.
+            final byte[] bytes = new byte[4];
+            assertThat(in.read(bytes, 0, bytes.length)).isEqualTo(2);
+            assertThat(Arrays.copyOf(bytes, 2))
+                    .isEqualTo(Arrays.copyOfRange(mData, LENGTH - 2, LENGTH));
+            assertThat(in.read()).isEqualTo(-1);
+            assertThat(in.read(bytes, 0, bytes.length)).isEqualTo(-1);
+            assertThat(in.read(bytes, 0, 0)).isEqualTo(0);
+
+            // The stream can still be reset from the end of the channel.
+            in.reset();
+            assertThat(in.read()).isEqualTo(mData[LENGTH - 2] & 0xff);
+
+            // Closing the stream keeps the channel open.
+            in.close();
+            assertThat(channel.isOpen()).isTrue();
+            assertThat(channel.position()).isEqualTo(LENGTH - 2);
+        }
+    }
+}
@@ -9,3 +9,5 @@ dependencyResolutionManagement {
 }
 rootProject.name = "ExifInterfaceExtended"
 include(":app")
+include(":core")
+include(":benchmark")